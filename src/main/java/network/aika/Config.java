@@ -19,6 +19,7 @@ package network.aika;
 import network.aika.neuron.activation.Activation;
 import network.aika.utils.Writable;
 
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Supplier;
 
 /**
@@ -31,6 +32,14 @@ public class Config {
 
     private boolean enableTraining;
 
+    private boolean coalesceDeltaSteps;
+
+    private ForkJoinPool forkJoinPool;
+
+    private int maxBranches;
+
+    private boolean countPrunedSteps;
+
     public double getLearnRate() {
         return learnRate;
     }
@@ -60,6 +69,62 @@ public class Config {
         return this;
     }
 
+    public boolean isCoalesceDeltaSteps() {
+        return coalesceDeltaSteps;
+    }
+
+    /**
+     * If enabled, the deltas of accumulating steps like SumUpLink or PropagateValueChange are merged into a
+     * still pending queue entry of the same element instead of creating a new queue entry. The final values
+     * match the uncoalesced processing within the tolerance of the deltas.
+     */
+    public Config setCoalesceDeltaSteps(boolean coalesceDeltaSteps) {
+        this.coalesceDeltaSteps = coalesceDeltaSteps;
+        return this;
+    }
+
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+
+    /**
+     * Enables the parallel processing of queue entries. Consecutive entries of the same phase and the same fired
+     * value form a wave. The entries of a wave whose steps declare different conflict keys are processed in
+     * parallel on the given pool. The results are the same as for the sequential processing. As long as event
+     * listeners are registered on the thought, the entries are processed sequentially.
+     */
+    public Config setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+        return this;
+    }
+
+    public int getMaxBranches() {
+        return maxBranches;
+    }
+
+    /**
+     * Limits the number of branches of an activation, that is the number of alternative interpretations that
+     * are created for mutually exclusive inputs. If a new branch exceeds the limit, the branch with the lowest
+     * branch probability, or with the lowest net on equal probabilities, is pruned. Zero means unlimited.
+     */
+    public Config setMaxBranches(int maxBranches) {
+        this.maxBranches = maxBranches;
+        return this;
+    }
+
+    public boolean isCountPrunedSteps() {
+        return countPrunedSteps;
+    }
+
+    /**
+     * If enabled, each thought counts per step class how often a step has been pruned, since the change it was
+     * about to propagate was below the tolerance. See {@link Thought#getPruneCounts()}.
+     */
+    public Config setCountPrunedSteps(boolean countPrunedSteps) {
+        this.countPrunedSteps = countPrunedSteps;
+        return this;
+    }
+
     public String getLabel(Activation act) {
         return "";
     }
@@ -31,9 +31,13 @@ import java.lang.ref.WeakReference;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -41,6 +45,10 @@ import java.util.stream.Stream;
 
 
 /**
+ * A model may be shared by several documents that are processed concurrently, each document in its own
+ * thread. The global instance counter and the provider registries are thread safe, and the neurons and
+ * synapses synchronize their own statistics and weight updates. Looking up or creating a neuron by its
+ * label is serialized on the model.
  *
  * @author Lukas Molzberger
  */
@@ -48,14 +56,31 @@ public abstract class Model implements Writable {
 
     private static final Logger log = LoggerFactory.getLogger(Model.class);
 
-    private long N = 0;
+    private final AtomicLong N = new AtomicLong(0);
+
+    /**
+     * End of the position ranges reserved by the thoughts. It runs ahead of N while thoughts are processed.
+     */
+    private final AtomicLong reservedN = new AtomicLong(0);
+
+    /**
+     * The thoughts whose statistics have not been fully applied yet, keyed by the begin of their range. Only
+     * the first of them updates the sample spaces directly, the others defer their updates until all
+     * preceding thoughts are complete. This way the statistics do not depend on the thread interleaving.
+     */
+    private final TreeMap<Long, Thought> openThoughts = new TreeMap<>();
 
     private SuspensionCallback suspensionCallback;
     private AtomicLong retrievalCounter = new AtomicLong(0);
 
     // Important: the id field needs to be referenced by the provider!
     private WeakHashMap<Long, WeakReference<NeuronProvider>> providers = new WeakHashMap<>();
-    public Map<Long, NeuronProvider> activeProviders = new TreeMap<>();
+    public Map<Long, NeuronProvider> activeProviders = new ConcurrentSkipListMap<>();
+
+    /**
+     * Neurons that have been modified by a training step and still need to be saved.
+     */
+    private final Set<NeuronProvider> dirtyProviders = ConcurrentHashMap.newKeySet();
 
     private Templates templates = new Templates(this);
 
@@ -112,7 +137,7 @@ public abstract class Model implements Writable {
                 .collect(Collectors.toList());
     }
 
-    public NeuronProvider lookupNeuronProvider(String tokenLabel, NeuronProducer onNewCallback) {
+    public synchronized NeuronProvider lookupNeuronProvider(String tokenLabel, NeuronProducer onNewCallback) {
         Long id = suspensionCallback.getIdByLabel(tokenLabel);
         if (id == null) {
             Neuron<?> n = onNewCallback.createNeuron(tokenLabel);
@@ -145,7 +170,8 @@ public abstract class Model implements Writable {
 
     public void applyMovingAverage(Config trainingConfig) {
         if(trainingConfig.getAlpha() != null) {
-            N *= trainingConfig.getAlpha();
+            double alpha = trainingConfig.getAlpha();
+            N.updateAndGet(n -> (long) (n * alpha));
         }
     }
 
@@ -158,15 +184,48 @@ public abstract class Model implements Writable {
     }
 
     public void addToN(int l) {
-        N += l;
+        N.addAndGet(l);
     }
 
     public long getN() {
-        return N;
+        return N.get();
     }
 
     public void setN(long n) {
-        N = n;
+        N.set(n);
+        reservedN.set(n);
+    }
+
+    /**
+     * Reserves a range of the given length behind N and all previously reserved ranges and returns its begin.
+     */
+    public long reserveRange(Thought t, int length) {
+        synchronized (openThoughts) {
+            long begin = reservedN.updateAndGet(r -> Math.max(r, N.get()) + length) - length;
+            if(!openThoughts.isEmpty())
+                t.deferStatistics();
+
+            openThoughts.put(begin, t);
+            return begin;
+        }
+    }
+
+    /**
+     * Called once the given thought is complete. If it is the first open thought, the deferred statistics of
+     * the following thoughts are applied in the order of their ranges.
+     */
+    public void releaseRange(Thought t) {
+        synchronized (openThoughts) {
+            t.setStatisticsComplete();
+            while(!openThoughts.isEmpty()) {
+                Thought first = openThoughts.firstEntry().getValue();
+                first.applyDeferredStatistics();
+                if(!first.isStatisticsComplete())
+                    break;
+
+                openThoughts.pollFirstEntry();
+            }
+        }
     }
 
     public NeuronProvider lookupNeuron(Long id) {
@@ -206,6 +265,25 @@ public abstract class Model implements Writable {
         return false;
     }
 
+    public void markDirty(NeuronProvider p) {
+        dirtyProviders.add(p);
+    }
+
+    /**
+     * Saves the neurons that have been marked as dirty. Suspended neurons have already been saved when they
+     * were suspended.
+     */
+    public void saveDirtyNeurons() {
+        Iterator<NeuronProvider> it = dirtyProviders.iterator();
+        while(it.hasNext()) {
+            NeuronProvider p = it.next();
+            it.remove();
+
+            if(!p.isSuspended())
+                p.save();
+        }
+    }
+
     public void registerWeakReference(NeuronProvider p) {
         synchronized (providers) {
             providers.put(p.getId(), new WeakReference<>(p));
@@ -234,6 +312,7 @@ public abstract class Model implements Writable {
     }
 
     public void close() throws IOException {
+        saveDirtyNeurons();
         suspensionCallback.saveIndex(this);
 
         suspensionCallback.close();
@@ -241,12 +320,12 @@ public abstract class Model implements Writable {
 
     @Override
     public void write(DataOutput out) throws IOException {
-        out.writeLong(N);
+        out.writeLong(N.get());
     }
 
     @Override
     public void readFields(DataInput in, Model m) throws Exception {
-        N = in.readLong();
+        setN(in.readLong());
     }
 
     public String statToString() {
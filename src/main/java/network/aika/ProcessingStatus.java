@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+/**
+ * The outcome of a bounded call to {@link Thought#process(Model, java.time.Instant)} or
+ * {@link Thought#process(Model, long)}.
+ *
+ * @author Lukas Molzberger
+ */
+public enum ProcessingStatus {
+    /**
+     * The queue has been processed completely and the result is final.
+     */
+    COMPLETE,
+
+    /**
+     * The processing stopped because the deadline passed or the maximum number of queue entries was reached.
+     * The remaining entries are still queued and the processing can be resumed by calling process again.
+     */
+    INTERRUPTED;
+
+    public boolean isComplete() {
+        return this == COMPLETE;
+    }
+}
@@ -25,16 +25,28 @@ import network.aika.neuron.NeuronProvider;
 import network.aika.neuron.Synapse;
 import network.aika.neuron.activation.Activation;
 import network.aika.neuron.activation.Element;
+import network.aika.neuron.activation.Gradient;
 import network.aika.neuron.activation.Link;
 import network.aika.neuron.activation.QueueEntry;
+import network.aika.neuron.activation.Scheduler;
 import network.aika.neuron.activation.visitor.Visitor;
 import network.aika.neuron.steps.Step;
-import network.aika.utils.BelowToleranceThresholdException;
+import network.aika.utils.ChunkedArray;
+import network.aika.utils.LongHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static network.aika.ProcessingStatus.COMPLETE;
+import static network.aika.ProcessingStatus.INTERRUPTED;
 
 /**
  *
@@ -43,22 +55,54 @@ import java.util.stream.Collectors;
 public abstract class Thought {
     private static final Logger log = LoggerFactory.getLogger(Thought.class);
 
+    private static final long NO_DEADLINE = Long.MIN_VALUE;
+
     private long timestampOnProcess = 0;
     private long timestampCounter = 0;
     private int activationIdCounter = 0;
+    private int searchEpoch = 0;
 
-    private final TreeSet<QueueEntry> queue = new TreeSet<>(QueueEntry.COMPARATOR);
+    private final Scheduler queue = new Scheduler();
+
+    private volatile boolean processingWave;
+    private final ThreadLocal<List<QueueEntry>> deferredQueueEntries = new ThreadLocal<>();
 
     private Set<Step> filters = new TreeSet<>(Comparator.comparing(p -> p.getClass().getSimpleName()));
 
-    private TreeMap<Integer, Activation> activationsById = new TreeMap<>();
+    /**
+     * The activation ids are assigned consecutively, so the activations are kept in a dense array. A clone
+     * of an activation reuses the id of the original activation and replaces it in this array.
+     */
+    private final ChunkedArray<Activation> activationsById = new ChunkedArray<>();
+
+    /**
+     * The currently active activations of each neuron, keyed by the neuron id.
+     */
+    private final LongHashMap<SortedSet<Activation>> actsPerNeuron = new LongHashMap<>();
+
+    /**
+     * Scratch buffer for the gradient that is currently being propagated. The gradient steps are never
+     * processed in parallel, so one buffer per thought suffices.
+     */
+    private final Gradient gradientBuffer = new Gradient();
+
+    /**
+     * The listeners are copied on write, so that dispatching an event neither locks nor allocates.
+     */
+    private volatile EventListener[] eventListeners = new EventListener[0];
+    private volatile VisitorEventListener[] visitorEventListeners = new VisitorEventListener[0];
+
+    private Config config;
 
-    private Map<NeuronProvider, SortedSet<Activation>> actsPerNeuron = null;
+    private volatile long absoluteBegin = -1;
 
-    private List<EventListener> eventListeners = new ArrayList<>();
-    private List<VisitorEventListener> visitorEventListeners = new ArrayList<>();
+    private volatile boolean statisticsDeferred;
+    private List<Runnable> deferredStatistics;
+    private boolean statisticsComplete;
 
-    private Config config;
+    // indexed by the step id, only allocated if counting is enabled in the config
+    private long[] pruneCounts;
+    private Class<?>[] prunedStepClasses;
 
 
     public Thought() {
@@ -81,77 +125,202 @@ public abstract class Thought {
     }
 
     public void onActivationCreationEvent(Activation act, Activation originAct) {
-        getEventListeners()
-                .forEach(
-                        el -> el.onActivationCreationEvent(act, originAct)
-                );
+        for(EventListener el: eventListeners)
+            el.onActivationCreationEvent(act, originAct);
     }
 
     public void beforeProcessedEvent(QueueEntry qe) {
-        getEventListeners()
-                .forEach(
-                        el -> el.beforeProcessedEvent(qe)
-                );
+        for(EventListener el: eventListeners)
+            el.beforeProcessedEvent(qe);
     }
 
     public void afterProcessedEvent(QueueEntry qe) {
-        getEventListeners()
-                .forEach(
-                        el -> el.afterProcessedEvent(qe)
-                );
+        for(EventListener el: eventListeners)
+            el.afterProcessedEvent(qe);
     }
 
     public void onLinkCreationEvent(Link l) {
-        getEventListeners()
-                .forEach(
-                        el -> el.onLinkCreationEvent(l)
-                );
+        for(EventListener el: eventListeners)
+            el.onLinkCreationEvent(l);
     }
 
     public void onVisitorEvent(Visitor v, VisitorEvent ve) {
-        getVisitorEventListeners()
-                .forEach(
-                        el -> el.onVisitorEvent(v, ve)
-                );
+        for(VisitorEventListener el: visitorEventListeners)
+            el.onVisitorEvent(v, ve);
     }
 
     public void onVisitorCandidateEvent(Visitor v, Synapse s) {
-        getVisitorEventListeners()
-                .forEach(
-                        el -> el.onVisitorCandidateEvent(v, s)
-                );
+        for(VisitorEventListener el: visitorEventListeners)
+            el.onVisitorCandidateEvent(v, s);
     }
 
-    public synchronized Collection<EventListener> getEventListeners() {
-        return eventListeners
-                .stream()
-                .collect(Collectors.toList());
+    public Collection<EventListener> getEventListeners() {
+        return List.of(eventListeners);
+    }
+
+    public boolean hasEventListeners() {
+        return eventListeners.length > 0;
     }
 
     public synchronized void addEventListener(EventListener l) {
-        eventListeners.add(l);
+        EventListener[] els = Arrays.copyOf(eventListeners, eventListeners.length + 1);
+        els[eventListeners.length] = l;
+        eventListeners = els;
     }
 
     public synchronized void removeEventListener(EventListener l) {
-        eventListeners.remove(l);
+        eventListeners = remove(eventListeners, l);
     }
 
+    /**
+     * Visitor events are fired for every step of the linking and template traversals. They are therefore
+     * only dispatched once a visitor event listener has been registered.
+     */
     public synchronized void addVisitorEventListener(VisitorEventListener l) {
-        visitorEventListeners.add(l);
+        VisitorEventListener[] els = Arrays.copyOf(visitorEventListeners, visitorEventListeners.length + 1);
+        els[visitorEventListeners.length] = l;
+        visitorEventListeners = els;
     }
 
     public synchronized void removeVisitorEventListener(VisitorEventListener l) {
-        visitorEventListeners.remove(l);
+        visitorEventListeners = remove(visitorEventListeners, l);
     }
 
-    public synchronized Collection<VisitorEventListener> getVisitorEventListeners() {
-        return visitorEventListeners
-                .stream()
-                .collect(Collectors.toList());
+    public boolean hasVisitorEventListeners() {
+        return visitorEventListeners.length > 0;
+    }
+
+    public Collection<VisitorEventListener> getVisitorEventListeners() {
+        return List.of(visitorEventListeners);
+    }
+
+    private static <L> L[] remove(L[] listeners, L l) {
+        for(int i = 0; i < listeners.length; i++) {
+            if(listeners[i] != l)
+                continue;
+
+            L[] result = Arrays.copyOf(listeners, listeners.length - 1);
+            System.arraycopy(listeners, i + 1, result, i, listeners.length - i - 1);
+            return result;
+        }
+        return listeners;
+    }
+
+    /**
+     * Returns the position of this thought within the sample spaces of the model. The range is reserved from the
+     * model when the first activation is registered, so the positions do not depend on other thoughts that are
+     * completed concurrently.
+     */
+    public long getAbsoluteBegin(Model m) {
+        long begin = absoluteBegin;
+        if(begin < 0) {
+            synchronized (this) {
+                begin = absoluteBegin;
+                if(begin < 0) {
+                    begin = m.reserveRange(this, length());
+                    absoluteBegin = begin;
+                }
+            }
+        }
+        return begin;
+    }
+
+    /**
+     * Applies an update of the neuron and synapse statistics. As long as a thought with a preceding range is
+     * still being processed, the update is deferred (see {@link Model#releaseRange(Thought)}).
+     */
+    public void updateStatistics(Runnable update) {
+        if(statisticsDeferred) {
+            synchronized (this) {
+                if(statisticsDeferred) {
+                    deferredStatistics.add(update);
+                    return;
+                }
+            }
+        }
+        update.run();
+    }
+
+    synchronized void deferStatistics() {
+        deferredStatistics = new ArrayList<>();
+        statisticsDeferred = true;
+    }
+
+    synchronized void applyDeferredStatistics() {
+        if(!statisticsDeferred)
+            return;
+
+        deferredStatistics.forEach(Runnable::run);
+        deferredStatistics = null;
+        statisticsDeferred = false;
+    }
+
+    synchronized void setStatisticsComplete() {
+        statisticsComplete = true;
+    }
+
+    synchronized boolean isStatisticsComplete() {
+        return statisticsComplete;
+    }
+
+    private void complete(Model m) {
+        m.addToN(length());
+
+        if(absoluteBegin >= 0)
+            m.releaseRange(this);
+
+        m.saveDirtyNeurons();
     }
 
     public void registerActivation(Activation act) {
-        activationsById.put(act.getId(), act);
+        getAbsoluteBegin(act.getModel());
+
+        Activation oldAct = activationsById.put(act.getId(), act);
+        if(oldAct != null && oldAct != act && oldAct.isActive(false))
+            removeFromNeuronIndex(oldAct, oldAct.getNeuron());
+
+        if(act.isActive(false))
+            addToNeuronIndex(act);
+    }
+
+    public void unregisterActivation(Activation act) {
+        if(activationsById.get(act.getId()) != act)
+            return;
+
+        activationsById.remove(act.getId());
+        if(act.isActive(false))
+            removeFromNeuronIndex(act, act.getNeuron());
+    }
+
+    /**
+     * Updates the per neuron index after the given activation has become active or inactive, or has been
+     * assigned to another neuron. Activations that have been replaced by a clone are ignored.
+     */
+    public void updateNeuronIndex(Activation act, Neuron<?> oldNeuron, boolean wasActive) {
+        if(activationsById.get(act.getId()) != act)
+            return;
+
+        if(wasActive)
+            removeFromNeuronIndex(act, oldNeuron);
+
+        if(act.isActive(false))
+            addToNeuronIndex(act);
+    }
+
+    private void addToNeuronIndex(Activation act) {
+        actsPerNeuron.computeIfAbsent(act.getNeuron().getId(), id -> new TreeSet<>())
+                .add(act);
+    }
+
+    private void removeFromNeuronIndex(Activation act, Neuron<?> n) {
+        long id = n.getId();
+        SortedSet<Activation> acts = actsPerNeuron.get(id);
+        if(acts == null)
+            return;
+
+        acts.remove(act);
+        if(acts.isEmpty())
+            actsPerNeuron.remove(id);
     }
 
     public void addQueueEntry(QueueEntry qe) {
@@ -167,32 +336,259 @@ public abstract class Thought {
         assert isRemoved;
     }
 
-    public void removeQueueEntries(Collection<QueueEntry> qe) {
-        queue.removeAll(qe);
+    public void removeQueueEntries(Stream<QueueEntry> qe) {
+        qe.forEach(queue::remove);
     }
 
+    /**
+     * Returns a sorted snapshot of the queue entries that are still waiting to be processed.
+     */
     public SortedSet<QueueEntry> getQueue() {
-        return queue;
+        return queue
+                .stream()
+                .collect(Collectors.toCollection(() -> new TreeSet<>(QueueEntry.COMPARATOR)));
     }
 
     public void process(Model m) {
+        processQueue(qe -> true);
+        complete(m);
+    }
+
+    /**
+     * Processes the queue until it is empty or the given deadline has passed. The deadline is checked between
+     * two queue entries, so an interrupted thought is left in a consistent state and calling process again
+     * resumes exactly where the processing stopped. The length of the thought is only added to the model once
+     * the processing is complete.
+     */
+    public ProcessingStatus process(Model m, Instant deadline) {
+        long nanoDeadline;
+        try {
+            long remaining = Duration.between(Instant.now(), deadline).toNanos();
+            nanoDeadline = Math.addExact(System.nanoTime(), Math.max(0l, remaining));
+        } catch(ArithmeticException e) {
+            nanoDeadline = NO_DEADLINE;
+        }
+        return process(m, nanoDeadline, Long.MAX_VALUE);
+    }
+
+    /**
+     * Processes at most the given number of queue entries. Like the deadline based variant, the processing
+     * can be resumed by calling process again.
+     */
+    public ProcessingStatus process(Model m, long maxEntries) {
+        return process(m, NO_DEADLINE, maxEntries);
+    }
+
+    private ProcessingStatus process(Model m, long deadline, long maxEntries) {
+        if(!processQueue(qe -> true, deadline, maxEntries))
+            return INTERRUPTED;
+
+        complete(m);
+        return COMPLETE;
+    }
+
+    protected void processQueue(Predicate<QueueEntry> isReady) {
+        processQueue(isReady, NO_DEADLINE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Processes the queued entries in order, skipping the entries that are not yet ready to be processed. The
+     * skipped entries are queued again afterwards. In contrast to {@link #process(Model)}, the length of the
+     * thought is not added to the model.
+     *
+     * @return false if the processing stopped early because the deadline (in terms of {@link System#nanoTime()})
+     * passed or the maximum number of entries has been processed.
+     */
+    protected boolean processQueue(Predicate<QueueEntry> isReady, long deadline, long maxEntries) {
+        List<QueueEntry> skipped = null;
+        long processed = 0;
+        boolean complete = true;
         while (!queue.isEmpty()) {
+            if(processed >= maxEntries || (deadline != NO_DEADLINE && System.nanoTime() - deadline >= 0)) {
+                complete = false;
+                break;
+            }
+
             QueueEntry qe = queue.pollFirst();
+            if(!isReady.test(qe)) {
+                if(skipped == null)
+                    skipped = new ArrayList<>();
+                skipped.add(qe);
+                continue;
+            }
+
+            List<QueueEntry> wave = pollWave(qe, isReady, maxEntries - processed);
+            if(wave != null) {
+                processWave(wave);
+                processed += wave.size();
+            } else {
+                processEntry(qe);
+                processed++;
+            }
+        }
+
+        if(skipped != null) {
+            for(QueueEntry qe: skipped) {
+                qe.setTimestamp(getNextTimestamp());
+                queue.add(qe);
+            }
+        }
+        return complete;
+    }
+
+    private void processEntry(QueueEntry qe) {
+        timestampOnProcess = timestampCounter;
 
+        qe.getElement().removeQueuedPhase(qe);
+
+        beforeProcessedEvent(qe);
+
+        processStep(qe);
+
+        afterProcessedEvent(qe);
+    }
+
+    private void processStep(QueueEntry qe) {
+        if(qe.getElement().isRetired())
+            return;
+
+        if(!qe.process() && config != null && config.isCountPrunedSteps())
+            countPruned(qe.getStep());
+    }
+
+    private synchronized void countPruned(Step s) {
+        int id = s.getId();
+        if(pruneCounts == null || id >= pruneCounts.length) {
+            int length = Math.max(id + 1, pruneCounts != null ? 2 * pruneCounts.length : 16);
+            pruneCounts = pruneCounts != null ? Arrays.copyOf(pruneCounts, length) : new long[length];
+            prunedStepClasses = prunedStepClasses != null ? Arrays.copyOf(prunedStepClasses, length) : new Class<?>[length];
+        }
+        pruneCounts[id]++;
+        prunedStepClasses[id] = s.getClass();
+    }
+
+    /**
+     * Returns per step class how often a step has been pruned, since the change it was about to propagate was
+     * below the tolerance. The steps are only counted if enabled in the config, see
+     * {@link Config#setCountPrunedSteps(boolean)}.
+     */
+    public synchronized Map<String, Long> getPruneCounts() {
+        Map<String, Long> result = new TreeMap<>();
+        if(pruneCounts == null)
+            return result;
+
+        for(int id = 0; id < pruneCounts.length; id++) {
+            if(pruneCounts[id] > 0)
+                result.put(prunedStepClasses[id].getName(), pruneCounts[id]);
+        }
+        return result;
+    }
+
+    public synchronized void resetPruneCounts() {
+        pruneCounts = null;
+        prunedStepClasses = null;
+    }
+
+    /**
+     * Collects the queue entries that directly follow the given entry and share its phase and fired value.
+     * Returns null if the entries need to be processed sequentially.
+     */
+    private List<QueueEntry> pollWave(QueueEntry first, Predicate<QueueEntry> isReady, long maxSize) {
+        if(config == null || config.getForkJoinPool() == null || getConflictKey(first) == null || hasEventListeners())
+            return null;
+
+        List<QueueEntry> wave = new ArrayList<>();
+        wave.add(first);
+
+        QueueEntry next = queue.peekFirst();
+        while(next != null && wave.size() < maxSize && belongsToWave(first, next) && isReady.test(next)) {
+            wave.add(queue.pollFirst());
+            next = queue.peekFirst();
+        }
+        return wave.size() > 1 ? wave : null;
+    }
+
+    private static boolean belongsToWave(QueueEntry first, QueueEntry qe) {
+        return first.getStep().getPhase() == qe.getStep().getPhase() &&
+                first.getFired().compareTo(qe.getFired()) == 0 &&
+                getConflictKey(qe) != null;
+    }
+
+    private static Object getConflictKey(QueueEntry qe) {
+        return qe.getStep().getConflictKey(qe.getElement());
+    }
+
+    /**
+     * The entries of a wave are partitioned by their conflict keys and the partitions are processed in parallel.
+     * Queue entries added while processing the wave are deferred. Afterwards they are added to the queue in the
+     * order in which the sequential processing would have added them.
+     */
+    private void processWave(List<QueueEntry> wave) {
+        Map<Object, List<Integer>> partitions = new IdentityHashMap<>();
+        for(int i = 0; i < wave.size(); i++)
+            partitions.computeIfAbsent(getConflictKey(wave.get(i)), k -> new ArrayList<>())
+                    .add(i);
+
+        List<QueueEntry>[] deferred = new List[wave.size()];
+
+        processingWave = true;
+        try {
+            if(partitions.size() == 1) {
+                processPartition(wave, partitions.values().iterator().next(), deferred);
+            } else {
+                ForkJoinPool pool = config.getForkJoinPool();
+                partitions.values()
+                        .stream()
+                        .map(p -> pool.submit(() -> processPartition(wave, p, deferred)))
+                        .collect(Collectors.toList())
+                        .forEach(ForkJoinTask::join);
+            }
+        } finally {
+            processingWave = false;
+        }
+
+        for(int i = 0; i < wave.size(); i++) {
+            QueueEntry qe = wave.get(i);
             timestampOnProcess = timestampCounter;
 
             qe.getElement().removeQueuedPhase(qe);
 
-            beforeProcessedEvent(qe);
+            for(QueueEntry d: deferred[i])
+                QueueEntry.add(d.getElement(), d.getStep());
+        }
+    }
 
-            try {
-                qe.process();
-            } catch(BelowToleranceThresholdException e) {
-            }
+    private void processPartition(List<QueueEntry> wave, List<Integer> partition, List<QueueEntry>[] deferred) {
+        try {
+            for(int i: partition) {
+                deferred[i] = new ArrayList<>();
+                deferredQueueEntries.set(deferred[i]);
 
-            afterProcessedEvent(qe);
+                processStep(wave.get(i));
+            }
+        } finally {
+            deferredQueueEntries.remove();
         }
-        m.addToN(length());
+    }
+
+    public boolean isProcessingWave() {
+        return processingWave;
+    }
+
+    public void deferQueueEntry(QueueEntry qe) {
+        deferredQueueEntries.get().add(qe);
+    }
+
+    /**
+     * Returns a new epoch for a search through the activation graph. Activations that have been visited
+     * during a search are tagged with its epoch, so that no visited flags need to be reset afterwards.
+     */
+    public int nextSearchEpoch() {
+        return ++searchEpoch;
+    }
+
+    public Gradient getGradientBuffer() {
+        return gradientBuffer;
     }
 
     public long getTimestampOnProcess() {
@@ -236,32 +632,16 @@ public abstract class Thought {
     }
 
     public Set<Activation> getActivations(NeuronProvider n) {
-        return getActivations(n.getNeuron());
+        return getActivations(n.getId());
     }
 
     public Set<Activation> getActivations(Neuron n) {
-        if(actsPerNeuron == null) {
-            actsPerNeuron = getActivationsPerNeuron();
-        }
-
-        Set<Activation> acts = actsPerNeuron.get(n.getProvider());
-        return acts != null ? acts : Collections.emptySet();
+        return getActivations(n.getId());
     }
 
-    private Map<NeuronProvider, SortedSet<Activation>> getActivationsPerNeuron() {
-        Map<NeuronProvider, SortedSet<Activation>> results = new TreeMap<>();
-
-        activationsById.values().stream()
-                .filter(act -> act.isActive(false))
-                .forEach(act -> {
-                    Set<Activation> acts = results.computeIfAbsent(
-                            act.getNeuronProvider(),
-                            n -> new TreeSet<>()
-                    );
-                    acts.add(act);
-                });
-
-        return results;
+    private Set<Activation> getActivations(long neuronId) {
+        Set<Activation> acts = actsPerNeuron.get(neuronId);
+        return acts != null ? acts : Collections.emptySet();
     }
 
     public String toString() {
@@ -22,9 +22,9 @@ import network.aika.utils.Writable;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -35,8 +35,8 @@ public class InMemorySuspensionCallback implements SuspensionCallback {
 
     private AtomicInteger currentId = new AtomicInteger(0);
 
-    private Map<Long, byte[]> storage = new TreeMap<>();
-    private final Map<String, Long> labels = new HashMap<>();
+    private Map<Long, byte[]> storage = new ConcurrentSkipListMap<>();
+    private final Map<String, Long> labels = new ConcurrentHashMap<>();
 
     @Override
     public void prepareNewModel() {
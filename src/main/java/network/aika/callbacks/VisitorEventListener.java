@@ -21,6 +21,8 @@ import network.aika.neuron.activation.visitor.Visitor;
 
 
 /**
+ * The visitors passed to these callbacks are reused for later traversal steps, so they must not be
+ * retained beyond the call.
  *
  * @author Lukas Molzberger
  */
@@ -22,10 +22,11 @@ import network.aika.neuron.activation.Fired;
 import network.aika.neuron.activation.Reference;
 import network.aika.neuron.activation.visitor.ActVisitor;
 import network.aika.neuron.sign.Sign;
+import network.aika.utils.BetaQuantile;
+import network.aika.utils.ConcurrentSortedLongMap;
 import network.aika.utils.ReadWriteLock;
 import network.aika.utils.Utils;
 import network.aika.utils.Writable;
-import org.apache.commons.math3.distribution.BetaDistribution;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,13 +34,17 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static network.aika.neuron.sign.Sign.NEG;
 import static network.aika.neuron.sign.Sign.POS;
 
 /**
+ * A neuron may be shared by several documents that are processed concurrently against the same model.
+ * Therefore, the synapse maps are concurrent maps and all updates of the bias, the frequency and the sample
+ * space are synchronized on the neuron itself. Reading the frequency is synchronized as well, since it is
+ * stored relative to the decay scale of the sample space.
  *
  * @author Lukas Molzberger
  */
@@ -61,14 +66,22 @@ public abstract class Neuron<S extends Synapse> implements Writable {
 
     protected volatile double bias;
 
-    protected TreeMap<NeuronProvider, S> inputSynapses = new TreeMap<>();
-    protected TreeMap<NeuronProvider, Synapse> outputSynapses = new TreeMap<>();
+    /**
+     * The synapses keyed by the id of the neuron on their opposite side.
+     */
+    protected ConcurrentSortedLongMap<S> inputSynapses = new ConcurrentSortedLongMap<>();
+    protected ConcurrentSortedLongMap<Synapse> outputSynapses = new ConcurrentSortedLongMap<>();
 
     protected final ReadWriteLock lock = new ReadWriteLock();
 
+    /**
+     * Stored multiplied by the decay scale of the sample space.
+     */
     protected double frequency;
     protected SampleSpace sampleSpace;
 
+    private BetaQuantile quantiles;
+
     protected boolean isInputNeuron; // Input Neurons won't be trained!
 
     protected boolean allowTraining = true;
@@ -141,10 +154,17 @@ public abstract class Neuron<S extends Synapse> implements Writable {
     }
 
     public Synapse getOutputSynapse(NeuronProvider n) {
+        long stamp = lock.tryOptimisticRead();
+        Synapse s = outputSynapses.get(n.getId());
+        if(lock.validate(stamp))
+            return s;
+
         lock.acquireReadLock();
-        Synapse s = outputSynapses.get(n);
-        lock.releaseReadLock();
-        return s;
+        try {
+            return outputSynapses.get(n.getId());
+        } finally {
+            lock.releaseReadLock();
+        }
     }
 
     public double getCandidateGradient(Activation act) {
@@ -169,11 +189,19 @@ public abstract class Neuron<S extends Synapse> implements Writable {
     }
 
     public Stream<S> getInputSynapses() {
-        return inputSynapses.values().stream();
+        return inputSynapses.stream();
     }
 
     public Stream<? extends Synapse> getOutputSynapses() {
-        return outputSynapses.values().stream();
+        return outputSynapses.stream();
+    }
+
+    public void forEachInputSynapse(Consumer<? super S> c) {
+        inputSynapses.forEach(c);
+    }
+
+    public void forEachOutputSynapse(Consumer<? super Synapse> c) {
+        outputSynapses.forEach(c);
     }
 
     public void setInputNeuron(boolean inputNeuron) {
@@ -185,42 +213,55 @@ public abstract class Neuron<S extends Synapse> implements Writable {
     }
 
     public boolean containsInputSynapse(Synapse s) {
-        return inputSynapses.containsKey(s.getPInput());
+        return inputSynapses.containsKey(s.getPInput().getId());
     }
 
     public boolean containsOutputSynapse(Synapse s) {
-        return outputSynapses.containsKey(s.getPOutput());
+        return outputSynapses.containsKey(s.getPOutput().getId());
     }
 
     public Synapse getInputSynapse(NeuronProvider n) {
+        long stamp = lock.tryOptimisticRead();
+        Synapse s = inputSynapses.get(n.getId());
+        if(lock.validate(stamp))
+            return s;
+
         lock.acquireReadLock();
-        Synapse s = inputSynapses.get(n);
-        lock.releaseReadLock();
-        return s;
+        try {
+            return inputSynapses.get(n.getId());
+        } finally {
+            lock.releaseReadLock();
+        }
     }
 
     public void addInputSynapse(S s) {
-        S os = inputSynapses.put(s.getPInput(), s);
+        S os = inputSynapses.put(s.getPInput().getId(), s);
         if(os != s) {
             setModified(true);
         }
     }
 
     public void removeInputSynapse(S s) {
-        if(inputSynapses.remove(s.getPInput()) != null) {
+        if(inputSynapses.remove(s.getPInput().getId()) != null) {
             setModified(true);
         }
     }
 
+    /**
+     * Called after the weight of one of the input synapses has changed.
+     */
+    public void updateWeightIndex(Synapse s) {
+    }
+
     public void addOutputSynapse(Synapse s) {
-        Synapse os = outputSynapses.put(s.getPOutput(), s);
+        Synapse os = outputSynapses.put(s.getPOutput().getId(), s);
         if(os != s) {
             setModified(true);
         }
     }
 
     public void removeOutputSynapse(Synapse s) {
-        if(outputSynapses.remove(s.getPOutput()) != null) {
+        if(outputSynapses.remove(s.getPOutput().getId()) != null) {
             setModified(true);
         }
     }
@@ -264,14 +305,14 @@ public abstract class Neuron<S extends Synapse> implements Writable {
     public void addConjunctiveBias(double b, boolean recurrent) {
     }
 
-    public void setBias(double b) {
+    public synchronized void setBias(double b) {
         bias += b;
         limitBias();
 
         modified = true;
     }
 
-    public void addBias(double biasDelta) {
+    public synchronized void addBias(double biasDelta) {
         bias += biasDelta;
         limitBias();
 
@@ -290,7 +331,7 @@ public abstract class Neuron<S extends Synapse> implements Writable {
         return 0.0;
     }
 
-    public double updateBias(double biasDelta) {
+    public synchronized double updateBias(double biasDelta) {
         addBias(biasDelta);
 
         double finalBias = getBias();
@@ -309,24 +350,34 @@ public abstract class Neuron<S extends Synapse> implements Writable {
         addDummyLinks(act);
 
         if(act.isActive(false)) {
-            sampleSpace.countSkippedInstances(act.getReference());
-
+            Reference ref = act.getReference();
             Double alpha = act.getConfig().getAlpha();
-            if(alpha != null)
-                applyMovingAverage(alpha);
-
-            sampleSpace.count();
-            frequency += 1.0;
-            modified = true;
+            act.getThought().updateStatistics(() -> count(ref, alpha));
         }
     }
 
-    public void applyMovingAverage(double alpha) {
-        sampleSpace.applyMovingAverage(alpha);
-        frequency *= alpha;
+    public synchronized void count(Reference ref, Double alpha) {
+        sampleSpace.countSkippedInstances(ref);
+
+        if(alpha != null)
+            applyMovingAverage(alpha);
+
+        sampleSpace.count();
+        frequency += sampleSpace.getDecayScale();
         modified = true;
     }
 
+    /**
+     * Decays the frequency and the sample space lazily. The neuron is not marked as modified, since the
+     * decay is persisted together with the next count.
+     */
+    public synchronized void applyMovingAverage(double alpha) {
+        sampleSpace.applyMovingAverage(alpha);
+
+        if(sampleSpace.isNormalizationRequired())
+            frequency /= sampleSpace.normalize();
+    }
+
     public double getSurprisal(Sign s, Reference ref) {
         double N = sampleSpace.getN(ref);
         if(isTemplate() || N == 0.0)
@@ -337,28 +388,35 @@ public abstract class Neuron<S extends Synapse> implements Writable {
     }
 
     public double getP(Sign s, double n) {
-        BetaDistribution dist = new BetaDistribution(
-                getFrequency(s, n) + 1,
-                getFrequency(s.invert(), n) + 1
-        );
+        BetaQuantile q = quantiles;
+        if(q == null) {
+            q = new BetaQuantile(2);
+            quantiles = q;
+        }
 
-        double p = dist.inverseCumulativeProbability(
+        return q.get(
+                s == POS ? 0 : 1,
+                getFrequency(s, n) + 1,
+                getFrequency(s.invert(), n) + 1,
                 BETA_THRESHOLD
         );
-
-        return p;
     }
 
-    public double getFrequency() {
-        return frequency;
+    /**
+     * Reads under the lock of the neuron, since the stored frequency and the decay scale are only consistent
+     * with each other outside of a normalization.
+     */
+    public synchronized double getFrequency() {
+        return frequency / sampleSpace.getDecayScale();
     }
 
     public double getFrequency(Sign s, double n) {
-        return (s == POS ? frequency : n - frequency);
+        double f = getFrequency();
+        return (s == POS ? f : n - f);
     }
 
-    public void setFrequency(double f) {
-        frequency = f;
+    public synchronized void setFrequency(double f) {
+        frequency = f * sampleSpace.getDecayScale();
         modified = true;
     }
 
@@ -399,7 +457,7 @@ public abstract class Neuron<S extends Synapse> implements Writable {
         }
         out.writeBoolean(false);
 
-        out.writeDouble(frequency);
+        out.writeDouble(getFrequency());
         sampleSpace.write(out);
 
         out.writeBoolean(isInputNeuron);
@@ -427,12 +485,12 @@ public abstract class Neuron<S extends Synapse> implements Writable {
 
         while (in.readBoolean()) {
             S syn = (S) Synapse.read(in, m);
-            inputSynapses.put(syn.getPInput(), syn);
+            inputSynapses.put(syn.getPInput().getId(), syn);
         }
 
         while (in.readBoolean()) {
             Synapse syn = Synapse.read(in, m);
-            outputSynapses.put(syn.getPOutput(), syn);
+            outputSynapses.put(syn.getPOutput().getId(), syn);
         }
 
         frequency = in.readDouble();
@@ -457,7 +515,7 @@ public abstract class Neuron<S extends Synapse> implements Writable {
     public String statToString() {
         return getClass().getSimpleName() + " " +
                 getId() + ":" + getLabel() + " " +
-                "f:" + Utils.round(frequency) + " " +
+                "f:" + Utils.round(getFrequency()) + " " +
                 "N:" + Utils.round(sampleSpace.getN(null)) + " " +
                 "p:" + Utils.round(getP(POS, sampleSpace.getN(null))) + " " +
                 "s(p):" + Utils.round(getSurprisal(POS, null)) + " " +
@@ -130,20 +130,25 @@ public class NeuronProvider implements Comparable<NeuronProvider> {
         neuron.setModified(false);
     }
 
-    private void reactivate() {
+    private synchronized void reactivate() {
+        if(neuron != null)
+            return;
+
         assert model.getSuspensionHook() != null;
 
+        Neuron n;
         try (DataInputStream dis = getDataInputStream(
                 model.getSuspensionHook().retrieve(id),
                 ENABLE_COMPRESSION
         )) {
-            neuron = Neuron.read(dis, model);
+            n = Neuron.read(dis, model);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
-        neuron.setProvider(this);
+        n.setProvider(this);
 
-        neuron.reactivate(model);
+        n.reactivate(model);
+        neuron = n;
         model.register(this);
     }
 
@@ -31,27 +31,42 @@ import java.io.IOException;
  * training instances a certain neuron or synapse has encountered. The Sample Space is used
  * to convert the counted frequencies to probabilities.
  *
+ * The sample space is shared by all documents processed against the model. Each document reserves its own
+ * range of positions (see {@link network.aika.Thought#getAbsoluteBegin(Model)}), so concurrently processed
+ * documents never overlap. Since they may still be counted out of order, the last position only advances
+ * monotonically and instances behind it are not counted as skipped instances.
+ *
+ * The moving average is applied lazily. A decay step only divides the decay scale by alpha, instead of
+ * multiplying N and the frequencies of the owning neuron or synapse. All counts are stored multiplied by the
+ * decay scale, so that counting remains a single addition and reading divides by the scale. Once the scale
+ * grows too large, the owner normalizes its stored counts again. The owner normalizes and reads its
+ * frequencies under its own lock, so that a frequency is never divided by a scale it has not been stored with.
+ *
  * @author Lukas Molzberger
  */
 public class SampleSpace implements Writable {
 
     private static final Logger log = LoggerFactory.getLogger(SampleSpace.class);
 
+    private static final double MAX_DECAY_SCALE = 1e32;
+
 
     private Model m;
     private double N = 0;
     private Long lastPos;
 
+    private volatile double decayScale = 1.0;
+
     public SampleSpace(Model m) {
         this.m = m;
     }
 
-    public double getN(Reference ref) {
-        return N + getNegativeInstancesSinceLastPos(ref);
+    public synchronized double getN(Reference ref) {
+        return N / decayScale + getNegativeInstancesSinceLastPos(ref);
     }
 
-    public void setN(int N) {
-        this.N = N;
+    public synchronized void setN(int N) {
+        this.N = N * decayScale;
     }
 
     public Long getLastPos() {
@@ -62,21 +77,42 @@ public class SampleSpace implements Writable {
         this.lastPos = lastPos;
     }
 
-    public void applyMovingAverage(double alpha) {
-        N *= alpha;
+    /**
+     * Factor by which all stored counts of this sample space and its owner exceed their actual values.
+     */
+    public double getDecayScale() {
+        return decayScale;
     }
 
-    public void countSkippedInstances(Reference ref) {
-        N += getNegativeInstancesSinceLastPos(ref);
+    public synchronized void applyMovingAverage(double alpha) {
+        decayScale /= alpha;
+    }
 
-        Long newPos = getAbsoluteEnd(m, ref);
-        assert lastPos == null || newPos > lastPos;
+    public boolean isNormalizationRequired() {
+        return decayScale > MAX_DECAY_SCALE;
+    }
+
+    /**
+     * Resets the decay scale to one and returns its previous value, by which the owner has to divide its
+     * stored frequencies.
+     */
+    public synchronized double normalize() {
+        double scale = decayScale;
+        N /= scale;
+        decayScale = 1.0;
+        return scale;
+    }
 
-        lastPos = newPos;
+    public synchronized void countSkippedInstances(Reference ref) {
+        N += getNegativeInstancesSinceLastPos(ref) * decayScale;
+
+        Long newPos = getAbsoluteEnd(m, ref);
+        if(lastPos == null || newPos > lastPos)
+            lastPos = newPos;
     }
 
-    public void count() {
-        N += 1;
+    public synchronized void count() {
+        N += decayScale;
     }
 
     public long getNegativeInstancesSinceLastPos(Reference ref) {
@@ -98,16 +134,20 @@ public class SampleSpace implements Writable {
     }
 
     public long getAbsoluteBegin(Model m, Reference ref) {
-        return m.getN() + (ref != null ? ref.getBegin() : 0);
+        return ref != null ?
+                ref.getThought().getAbsoluteBegin(m) + ref.getBegin() :
+                m.getN();
     }
 
     public long getAbsoluteEnd(Model m, Reference ref) {
-        return m.getN() + (ref != null ? ref.getEnd() : 0);
+        return ref != null ?
+                ref.getThought().getAbsoluteBegin(m) + ref.getEnd() :
+                m.getN();
     }
 
     @Override
-    public void write(DataOutput out) throws IOException {
-        out.writeDouble(N);
+    public synchronized void write(DataOutput out) throws IOException {
+        out.writeDouble(N / decayScale);
         out.writeBoolean(lastPos != null);
         if(lastPos != null)
             out.writeLong(lastPos);
@@ -122,11 +162,12 @@ public class SampleSpace implements Writable {
     @Override
     public void readFields(DataInput in, Model m) throws IOException {
         N = in.readDouble();
+        decayScale = 1.0;
         if(in.readBoolean())
             lastPos = in.readLong();
     }
 
     public String toString() {
-        return "N:" + N + " lastPos:" + lastPos;
+        return "N:" + (N / decayScale) + " lastPos:" + lastPos;
     }
 }
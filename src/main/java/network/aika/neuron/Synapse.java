@@ -29,9 +29,9 @@ import network.aika.neuron.scope.Scope;
 import network.aika.neuron.sign.Sign;
 import network.aika.neuron.steps.VisitorStep;
 import network.aika.neuron.steps.link.PropagateGradientAndUpdateWeight;
+import network.aika.utils.BetaQuantile;
 import network.aika.utils.Utils;
 import network.aika.utils.Writable;
-import org.apache.commons.math3.distribution.BetaDistribution;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,6 +45,8 @@ import static network.aika.neuron.sign.Sign.POS;
 import static network.aika.neuron.steps.link.LinkStep.INFORMATION_GAIN_GRADIENT;
 
 /**
+ * The weight, the frequencies and the sample space of a synapse may be updated by several documents that are
+ * processed concurrently against the same model. These updates are synchronized on the synapse itself.
  *
  * @author Lukas Molzberger
  */
@@ -60,13 +62,24 @@ public abstract class Synapse<I extends Neuron<?>, O extends Neuron<?>> implemen
     private Synapse template;
     private TemplateSynapseInfo templateInfo;
 
-    protected double weight;
+    protected volatile double weight;
+
+    /**
+     * The weight at which this synapse is currently sorted into the {@link WeightSortedSynapses} of its
+     * output neuron.
+     */
+    double indexedWeight;
 
     protected SampleSpace sampleSpace;
 
+    /**
+     * The frequencies are stored multiplied by the decay scale of the sample space.
+     */
     protected double frequencyIPosOPos;
     protected double frequencyIPosONeg;
     protected double frequencyINegOPos;
+
+    private BetaQuantile quantiles;
     private volatile boolean modified;
 
     protected boolean allowTraining = true;
@@ -302,19 +315,21 @@ public abstract class Synapse<I extends Neuron<?>, O extends Neuron<?>> implemen
         return sampleSpace;
     }
 
-    public double getFrequency(Sign is, Sign os, double n) {
+    public synchronized double getFrequency(Sign is, Sign os, double n) {
+        double scale = sampleSpace.getDecayScale();
         if(is == POS && os == POS) {
-            return frequencyIPosOPos;
+            return frequencyIPosOPos / scale;
         } else if(is == POS && os == NEG) {
-            return frequencyIPosONeg;
+            return frequencyIPosONeg / scale;
         } else if(is == NEG && os == POS) {
-            return frequencyINegOPos;
+            return frequencyINegOPos / scale;
         }
 
-        return n - (frequencyIPosOPos + frequencyIPosONeg + frequencyINegOPos);
+        return n - (frequencyIPosOPos + frequencyIPosONeg + frequencyINegOPos) / scale;
     }
 
-    public void setFrequency(Sign is, Sign os, double f) {
+    public synchronized void setFrequency(Sign is, Sign os, double f) {
+        f *= sampleSpace.getDecayScale();
         if(is == POS && os == POS) {
             frequencyIPosOPos = f;
         } else if(is == POS && os == NEG) {
@@ -327,36 +342,47 @@ public abstract class Synapse<I extends Neuron<?>, O extends Neuron<?>> implemen
         modified = true;
     }
 
-    public void applyMovingAverage(double alpha) {
+    /**
+     * Decays the frequencies and the sample space lazily. The synapse is not marked as modified, since the
+     * decay is persisted together with the next count.
+     */
+    public synchronized void applyMovingAverage(double alpha) {
         sampleSpace.applyMovingAverage(alpha);
-        frequencyIPosOPos *= alpha;
-        frequencyIPosONeg *= alpha;
-        frequencyINegOPos *= alpha;
-        modified = true;
+
+        if(sampleSpace.isNormalizationRequired()) {
+            double scale = sampleSpace.normalize();
+            frequencyIPosOPos /= scale;
+            frequencyIPosONeg /= scale;
+            frequencyINegOPos /= scale;
+        }
     }
 
     public void count(Link l) {
+        Reference ref = l.getInput().getReference();
         boolean iActive = l.getInput().isActive(false);
         boolean oActive = l.getOutput().isActive(false);
+        Double alpha = l.getConfig().getAlpha();
 
-        sampleSpace.countSkippedInstances(l.getInput().getReference());
+        l.getThought().updateStatistics(() -> count(ref, iActive, oActive, alpha));
+    }
 
-        if(oActive) {
-            Double alpha = l.getConfig().getAlpha();
-            if (alpha != null)
-                applyMovingAverage(alpha);
-        }
+    public synchronized void count(Reference ref, boolean iActive, boolean oActive, Double alpha) {
+        sampleSpace.countSkippedInstances(ref);
+
+        if(oActive && alpha != null)
+            applyMovingAverage(alpha);
 
         sampleSpace.count();
 
+        double scale = sampleSpace.getDecayScale();
         if(iActive && oActive) {
-            frequencyIPosOPos += 1.0;
+            frequencyIPosOPos += scale;
             modified = true;
         } else if(iActive && !oActive) {
-            frequencyIPosONeg += 1.0;
+            frequencyIPosONeg += scale;
             modified = true;
         } else if(!iActive && oActive) {
-            frequencyINegOPos += 1.0;
+            frequencyINegOPos += scale;
             modified = true;
         }
     }
@@ -375,12 +401,16 @@ public abstract class Synapse<I extends Neuron<?>, O extends Neuron<?>> implemen
     }
 
     public double getP(Sign si, Sign so, double n) {
-        BetaDistribution dist = new BetaDistribution(
-                getFrequency(si, so, n) + 1,
-                n + 1
-        );
+        BetaQuantile q = quantiles;
+        if(q == null) {
+            q = new BetaQuantile(4);
+            quantiles = q;
+        }
 
-        return dist.inverseCumulativeProbability(
+        return q.get(
+                (si == POS ? 0 : 2) + (so == POS ? 0 : 1),
+                getFrequency(si, so, n) + 1,
+                n + 1,
                 BETA_THRESHOLD
         );
     }
@@ -393,18 +423,26 @@ public abstract class Synapse<I extends Neuron<?>, O extends Neuron<?>> implemen
         return Math.abs(weight) < TOLERANCE;
     }
 
-    public void setWeight(double weight) {
+    public synchronized void setWeight(double weight) {
         this.weight = weight;
         modified = true;
+        updateWeightIndex();
     }
 
-    public void addWeight(double weightDelta) {
+    public synchronized void addWeight(double weightDelta) {
         this.weight += weightDelta;
         modified = true;
+        updateWeightIndex();
+    }
+
+    private void updateWeightIndex() {
+        Neuron<?> on = output != null ? output.getIfNotSuspended() : null;
+        if(on != null)
+            on.updateWeightIndex(this);
     }
 
     @Override
-    public void write(DataOutput out) throws IOException {
+    public synchronized void write(DataOutput out) throws IOException {
         out.writeByte(getTemplate().getTemplateInfo().getTemplateSynapseId());
 
         out.writeLong(input.getId());
@@ -412,9 +450,10 @@ public abstract class Synapse<I extends Neuron<?>, O extends Neuron<?>> implemen
 
         out.writeDouble(weight);
 
-        out.writeDouble(frequencyIPosOPos);
-        out.writeDouble(frequencyIPosONeg);
-        out.writeDouble(frequencyINegOPos);
+        double scale = sampleSpace.getDecayScale();
+        out.writeDouble(frequencyIPosOPos / scale);
+        out.writeDouble(frequencyIPosONeg / scale);
+        out.writeDouble(frequencyINegOPos / scale);
 
         sampleSpace.write(out);
     }
@@ -17,8 +17,13 @@
 package network.aika.neuron;
 
 
+import network.aika.neuron.activation.direction.Direction;
+
 import java.util.Set;
 
+import static network.aika.neuron.activation.direction.Direction.DIRECTIONS;
+import static network.aika.neuron.activation.direction.Direction.INPUT;
+
 /**
  *
  * @author Lukas Molzberger
@@ -28,6 +33,12 @@ public class TemplateNeuronInfo {
     private String label;
     private Set<Neuron<?>> templateGroup;
 
+    /**
+     * The template synapses of the template group, indexed by direction and invertRecurrent.
+     */
+    private Synapse[][] targetSynapses;
+    private long[] templateGroupIds;
+
     private double xCoord;
     private double yCoord;
 
@@ -63,4 +74,43 @@ public class TemplateNeuronInfo {
     public void setTemplateGroup(Set<Neuron<?>> templateGroup) {
         this.templateGroup = templateGroup;
     }
+
+    /**
+     * Precomputes the template synapses that can be reached from the template group in each direction. The
+     * templates are fixed once they are initialized, so the template tasks can use plain array lookups
+     * instead of streaming over the synapses of the template group.
+     */
+    public void compileTransitions() {
+        targetSynapses = new Synapse[4][];
+        for(Direction dir: DIRECTIONS) {
+            for(boolean invertRecurrent: new boolean[] {false, true}) {
+                targetSynapses[index(dir, invertRecurrent)] = templateGroup.stream()
+                        .flatMap(tn ->
+                                dir.getSynapses(tn, invertRecurrent)
+                        )
+                        .toArray(Synapse[]::new);
+            }
+        }
+
+        templateGroupIds = templateGroup.stream()
+                .mapToLong(Neuron::getId)
+                .toArray();
+    }
+
+    public Synapse[] getTargetSynapses(Direction dir, boolean invertRecurrent) {
+        return targetSynapses[index(dir, invertRecurrent)];
+    }
+
+    public boolean isInTemplateGroup(Neuron<?> n) {
+        long id = n.getId();
+        for(long tnId: templateGroupIds) {
+            if(tnId == id)
+                return true;
+        }
+        return false;
+    }
+
+    private static int index(Direction dir, boolean invertRecurrent) {
+        return (dir == INPUT ? 0 : 2) + (invertRecurrent ? 1 : 0);
+    }
 }
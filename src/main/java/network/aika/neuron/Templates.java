@@ -163,6 +163,10 @@ public class Templates {
                         "Regular Inhibitory Synapse",
                         9
                 );
+
+        getAllTemplates().forEach(tn ->
+                tn.getTemplateInfo().compileTransitions()
+        );
     }
 
     public Collection<Neuron> getAllTemplates() {
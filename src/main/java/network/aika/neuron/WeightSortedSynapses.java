@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.neuron;
+
+import java.util.Comparator;
+import java.util.TreeSet;
+
+/**
+ * Keeps the input synapses of a neuron sorted by weight in descending order. Instead of sorting all the
+ * synapses whenever the input links are updated, a synapse is only repositioned when its weight changes.
+ * Since the weight of a synapse may change at any time, the index sorts by the weight at which the synapse
+ * has been indexed.
+ *
+ * @author Lukas Molzberger
+ */
+public class WeightSortedSynapses {
+
+    private static final Comparator<Synapse> COMPARATOR =
+            Comparator.<Synapse>comparingDouble(s -> s.indexedWeight).reversed()
+                    .thenComparing(s -> s.getPInput());
+
+    private final TreeSet<Synapse> synapses = new TreeSet<>(COMPARATOR);
+
+    public synchronized void add(Synapse s) {
+        s.indexedWeight = s.getWeight();
+        synapses.add(s);
+    }
+
+    public synchronized void remove(Synapse s) {
+        synapses.remove(s);
+    }
+
+    /**
+     * Repositions the synapse according to its current weight, if it is part of this index.
+     */
+    public synchronized void update(Synapse s) {
+        if(s.indexedWeight == s.getWeight() || !synapses.remove(s))
+            return;
+
+        s.indexedWeight = s.getWeight();
+        synapses.add(s);
+    }
+
+    /**
+     * Links a synapse to its input neuron, if the bias and the stronger synapses leave the neuron active
+     * without this input. Synapses with a non-positive weight are not considered. The input links are only
+     * modified for the synapses whose status changes.
+     */
+    public synchronized void updateInputLinks(double bias) {
+        double sum = bias;
+        for(Synapse s: synapses) {
+            if(s.indexedWeight <= 0.0) break;
+
+            boolean link = sum > 0.0;
+            if(link != s.isInputLinked())
+                s.updateInputLink(link);
+
+            sum -= s.indexedWeight;
+        }
+    }
+
+    public synchronized int size() {
+        return synapses.size();
+    }
+}
@@ -34,9 +34,11 @@ import network.aika.neuron.steps.activation.UpdateBias;
 import network.aika.neuron.steps.link.LinkStep;
 import network.aika.neuron.steps.link.PropagateGradientAndUpdateWeight;
 import network.aika.neuron.steps.link.SumUpLink;
+import network.aika.utils.SortedLongMap;
 import network.aika.utils.Utils;
 
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -55,12 +57,21 @@ public class Activation extends Element<Activation> {
 
     public static final Comparator<Activation> ID_COMPARATOR = Comparator.comparingInt(act -> act.id);
 
-    private Double value = null;
-    private Double inputValue = null;
+    private static final Comparator<Activation> BRANCH_STRENGTH_COMPARATOR = Comparator
+            .<Activation>comparingDouble(act -> act.branchProbability)
+            .thenComparingDouble(act -> act.net)
+            .thenComparing(ID_COMPARATOR.reversed());
+
+    private double value;
+    private boolean valueComputed;
+    private double inputValue;
+    private boolean hasInputValue;
     private double net;
     private double lastNet = 0.0;
     private Fired fired = NOT_FIRED;
     private boolean marked;
+    private int visitedEpoch;
+    private boolean retired;
 
     private int id;
     private Neuron<?> neuron;
@@ -68,25 +79,30 @@ public class Activation extends Element<Activation> {
 
     private double branchProbability = 1.0;
 
-    Map<NeuronProvider, Link> inputLinks;
-    NavigableMap<OutputKey, Link> outputLinks;
+    /**
+     * The input links are keyed by the id of the input neuron and the output links by the id of the output
+     * neuron and the id of the output activation, see {@link #getOutputKey(long, int)}.
+     */
+    SortedLongMap<Link> inputLinks;
+    SortedLongMap<Link> outputLinks;
 
-    private Set<Activation> branches = new TreeSet<>();
+    /**
+     * The branches, the gradients and the gradient sums are only allocated once they are needed, since
+     * most activations never get any branches and no gradients are computed unless training is enabled.
+     */
+    private Set<Activation> branches;
     private Activation mainBranch;
 
     private Reference reference;
 
-    public final static int OWN = 0;
-    public final static int INCOMING = 1;
-
     private double lastEntropyGradient = 0.0;
-    private double inputGradient[] = new double[2];
+    private Gradient inputGradient;
 
     /**
      * Accumulates all gradients in case a new link is added that needs be get informed about the gradient.
      */
-    private double outputGradientSum[];
-    private double inputGradientSum[];
+    private Gradient outputGradientSum;
+    private Gradient inputGradientSum;
 
     public boolean markedNetUpdateOccurred; // Temporary hack
 
@@ -105,8 +121,8 @@ public class Activation extends Element<Activation> {
 
         thought.registerActivation(this);
 
-        inputLinks = new TreeMap<>();
-        outputLinks = new TreeMap<>(OutputKey.COMPARATOR);
+        inputLinks = new SortedLongMap<>();
+        outputLinks = new SortedLongMap<>();
 
         t.onActivationCreationEvent(this, fromAct);
     }
@@ -137,19 +153,29 @@ public class Activation extends Element<Activation> {
         return id;
     }
 
-    public Double getValue() {
+    /**
+     * Returns the value of this activation, or 0.0 if it has not been computed yet.
+     */
+    public double getValue() {
         return value;
     }
 
+    public boolean isValueComputed() {
+        return valueComputed;
+    }
+
     public double getNet() {
         return net;
     }
 
-    public double[] getInputGradient() {
+    /**
+     * Returns null as long as no gradient has been propagated to this activation.
+     */
+    public Gradient getInputGradient() {
         return inputGradient;
     }
 
-    public double[] getOutputGradientSum() {
+    public Gradient getOutputGradientSum() {
         return outputGradientSum;
     }
 
@@ -174,8 +200,17 @@ public class Activation extends Element<Activation> {
         return ID_COMPARATOR.compare(this, act);
     }
 
-    public OutputKey getOutputKey() {
-        return new OutputKey(getNeuronProvider(), getId());
+    public long getOutputKey() {
+        return getOutputKey(getNeuronProvider().getId(), id);
+    }
+
+    /**
+     * Packs the neuron id into the upper and the non-negative activation id into the lower half of the key,
+     * so that the output links are ordered by their output neuron first and by their output activation second.
+     */
+    public static long getOutputKey(long neuronId, int actId) {
+        assert neuronId >= Integer.MIN_VALUE && neuronId <= Integer.MAX_VALUE;
+        return (neuronId << 32) | (actId & 0xFFFFFFFFL);
     }
 
     public String getLabel() {
@@ -201,7 +236,11 @@ public class Activation extends Element<Activation> {
     }
 
     public void setNeuron(Neuron n) {
+        Neuron<?> oldNeuron = neuron;
         this.neuron = n;
+
+        if(isActive(false))
+            thought.updateNeuronIndex(this, oldNeuron, true);
     }
 
     public ActivationFunction getActivationFunction() {
@@ -220,18 +259,54 @@ public class Activation extends Element<Activation> {
         return neuron.getProvider();
     }
 
+    /**
+     * Creates a new branch of this activation. Returns null if the number of branches is limited and the new
+     * branch is the weakest one, see {@link Config#setMaxBranches(int)}. Branches that have already propagated
+     * their value to output activations are never pruned, since their contribution to the nets of these
+     * activations cannot be taken back.
+     */
     public Activation createBranch(Synapse excludedSyn) {
         Activation clonedAct = thought.createActivation(neuron);
 
         copyPhases(clonedAct);
+        if(branches == null)
+            branches = new TreeSet<>();
         branches.add(clonedAct);
         clonedAct.mainBranch = this;
         linkClone(clonedAct, excludedSyn);
+
+        int maxBranches = getConfig() != null ? getConfig().getMaxBranches() : 0;
+        if(maxBranches > 0 && branches.size() > maxBranches) {
+            Activation weakestBranch = branches.stream()
+                    .filter(b -> b.outputLinks.isEmpty())
+                    .min(BRANCH_STRENGTH_COMPARATOR)
+                    .get();
+            weakestBranch.pruneBranch();
+
+            if(weakestBranch == clonedAct)
+                return null;
+        }
         return clonedAct;
     }
 
+    /**
+     * Removes this branch from its main branch together with its queued steps and its input links. The branch
+     * must not have any output links yet.
+     */
+    private void pruneBranch() {
+        assert outputLinks.isEmpty();
+
+        mainBranch.branches.remove(this);
+
+        removeQueuedEntries();
+        inputLinks.values()
+                .forEach(l -> l.removeQueuedEntries());
+
+        retire();
+    }
+
     public Activation clone(Synapse excludedSyn) {
-        if (value == null)
+        if (!valueComputed)
             return this;
 
         Activation clonedAct = new Activation(id, thought, neuron, null);
@@ -257,10 +332,11 @@ public class Activation extends Element<Activation> {
 
     public void setInputValue(double v) {
         inputValue = v;
+        hasInputValue = true;
     }
 
     public boolean isActive(boolean defaultValue) {
-        if(value == null)
+        if(!valueComputed)
             return defaultValue;
 
         return value > 0.0;
@@ -271,23 +347,47 @@ public class Activation extends Element<Activation> {
     }
 
     public boolean isConflicting() {
+        int epoch = thought.nextSearchEpoch();
         return getConflictingMainBranches()
-                .anyMatch(act -> act.searchWithinBranch());
+                .anyMatch(act -> act.searchWithinBranch(epoch));
     }
 
     public boolean searchWithinBranch() {
-        if (isMarked())
-            return true;
+        return searchWithinBranch(thought.nextSearchEpoch());
+    }
 
-        return getOutputLinks()
-                .filter(l -> !l.isNegative() || l.isCausal())
-                .map(l -> l.getOutput())
-                .filter(act ->
-                        act.fired != NOT_FIRED && Fired.COMPARATOR.compare(fired, act.fired) == -1
-                )
-                .anyMatch(act ->
-                        act.searchWithinBranch()
-                );
+    /**
+     * Searches along the output links for a marked activation. The search is iterative, so that long chains
+     * of activations cannot overflow the stack. Every activation that has already been reached within the
+     * same search epoch is skipped, since its outcome does not depend on the path it was reached by.
+     */
+    private boolean searchWithinBranch(int epoch) {
+        if(visitedEpoch == epoch)
+            return false;
+        visitedEpoch = epoch;
+
+        ArrayDeque<Activation> stack = new ArrayDeque<>();
+        stack.push(this);
+        while(!stack.isEmpty()) {
+            Activation act = stack.pop();
+            if(act.isMarked())
+                return true;
+
+            for(Link l: act.outputLinks.values()) {
+                if(l.isNegative() && !l.isCausal())
+                    continue;
+
+                Activation oAct = l.getOutput();
+                if(oAct.visitedEpoch == epoch ||
+                        oAct.fired == NOT_FIRED ||
+                        Fired.COMPARATOR.compare(act.fired, oAct.fired) != -1)
+                    continue;
+
+                oAct.visitedEpoch = epoch;
+                stack.push(oAct);
+            }
+        }
+        return false;
     }
 
     public Stream<Activation> getConflictingMainBranches() {
@@ -295,7 +395,7 @@ public class Activation extends Element<Activation> {
             return Stream.of(mainBranch);
         }
 
-        return branches.stream()
+        return getBranches()
                 .flatMap(act -> act.getInputLinks())
                 .filter(l -> l.isNegative())
                 .map(l -> l.getInput())
@@ -309,7 +409,7 @@ public class Activation extends Element<Activation> {
                 .filter(l -> !l.getSynapse().isZero())
                 .forEach(l -> {
                             double w = l.getSynapse().getWeight();
-                            QueueEntry.add(l, new SumUpLink(delta * w));
+                            SumUpLink.add(l, delta * w);
                             QueueEntry.add(l.getOutput(), USE_FINAL_BIAS);
                         }
                 );
@@ -344,15 +444,15 @@ public class Activation extends Element<Activation> {
     }
 
     public Link getInputLink(Neuron n) {
-        return inputLinks.get(n.getProvider());
+        return inputLinks.get(n.getId());
     }
 
     public Link getInputLink(Synapse s) {
-        return inputLinks.get(s.getPInput());
+        return inputLinks.get(s.getPInput().getId());
     }
 
     public boolean inputLinkExists(Synapse s) {
-        return inputLinks.containsKey(s.getPInput());
+        return inputLinks.containsKey(s.getPInput().getId());
     }
 
     public boolean templateInputLinkExists(Synapse ts) {
@@ -366,17 +466,19 @@ public class Activation extends Element<Activation> {
     }
 
     public boolean outputLinkExists(Synapse s) {
-        return !getOutputLinks(s).isEmpty();
+        long nId = s.getOutput().getId();
+        return outputLinks.containsRange(
+                getOutputKey(nId, 0),
+                getOutputKey(nId, MAX_VALUE)
+        );
     }
 
-    public SortedMap<OutputKey, Link> getOutputLinks(Synapse s) {
-        return outputLinks
-                .subMap(
-                        new OutputKey(s.getOutput().getProvider(), Integer.MIN_VALUE),
-                        true,
-                        new OutputKey(s.getOutput().getProvider(), MAX_VALUE),
-                        true
-                );
+    public Collection<Link> getOutputLinks(Synapse s) {
+        long nId = s.getOutput().getId();
+        return outputLinks.values(
+                getOutputKey(nId, 0),
+                getOutputKey(nId, MAX_VALUE)
+        );
     }
 
     public Link addLink(Synapse s, Activation input, boolean isSelfRef) {
@@ -391,46 +493,56 @@ public class Activation extends Element<Activation> {
         double w = s.getWeight();
 
         if (!Utils.belowTolerance(w))
-            QueueEntry.add(
+            SumUpLink.add(
                     nl,
-                    new SumUpLink(w * Link.getInputValueDelta(POS, nl, ol))
+                    w * Link.getInputValueDelta(POS, nl, ol)
             );
 
         return nl;
     }
 
-    public void updateNet(double netDelta) {
+    public boolean updateNet(double netDelta) {
         net += netDelta;
 
-        Utils.checkTolerance(this, netDelta);
+        if(Utils.belowTolerance(netDelta))
+            return false;
 
         if(!markedNetUpdateOccurred)
             QueueEntry.add(this, PROPAGATE_GRADIENTS_NET);
         QueueEntry.add(this, CHECK_IF_FIRED);
+
+        return true;
     }
 
     private double computeValue() {
         return branchProbability * getActivationFunction().f(net);
     }
 
-    public void updateValue() {
-        Double oldValue = value;
+    public boolean updateValue() {
+        double oldValue = value;
+        boolean wasActive = isActive(false);
 
-        value = inputValue != null ?
+        value = hasInputValue ?
                 inputValue :
                 computeValue();
+        valueComputed = true;
 
-        double valueDelta = value - (oldValue != null ? oldValue : 0.0);
+        if(wasActive != isActive(false))
+            thought.updateNeuronIndex(this, neuron, wasActive);
 
-        Utils.checkTolerance(this, valueDelta);
+        double valueDelta = value - oldValue;
+
+        if(Utils.belowTolerance(valueDelta))
+            return false;
 
         QueueEntry.add(this,
                 new PropagateValueChange(valueDelta)
         );
+        return true;
     }
 
     public boolean checkIfFired() {
-        if (fired == NOT_FIRED && value != null && value > 0.0) {
+        if (fired == NOT_FIRED && valueComputed && value > 0.0) {
             setFired(neuron.incrementFired(getLatestFired()));
             return true;
         }
@@ -450,7 +562,9 @@ public class Activation extends Element<Activation> {
                         getReference()
                 );
 
-        inputGradient[OWN] += g - lastEntropyGradient;
+        if(inputGradient == null)
+            inputGradient = new Gradient();
+        inputGradient.addOwn(g - lastEntropyGradient);
         lastEntropyGradient = g;
     }
 
@@ -474,43 +588,56 @@ public class Activation extends Element<Activation> {
         QueueEntry.add(this, TEMPLATE_PROPAGATE_OUTPUT);
     }
 
-    public void propagateGradientsFromSumUpdate() {
+    public boolean propagateGradientsFromSumUpdate() {
         ActivationFunction actF = getActivationFunction();
 
-        inputGradientSum = Utils.add(inputGradientSum, inputGradient);
-        double[] g = inputGradient;
-        inputGradient = new double[2];
+        if(inputGradient == null)
+            inputGradient = new Gradient();
+        if(inputGradientSum == null)
+            inputGradientSum = new Gradient();
+        inputGradientSum.add(inputGradient);
 
-        g = Utils.scale(g, actF.outerGrad(lastNet));
+        Gradient g = thought.getGradientBuffer()
+                .set(inputGradient)
+                .scale(actF.outerGrad(lastNet));
+        inputGradient.clear();
 
-        propagateGradientsOut(g);
+        return propagateGradientsOut(g);
     }
 
-    public void propagateGradientsFromNetUpdate() {
+    public boolean propagateGradientsFromNetUpdate() {
         if(inputGradientSum == null)
-            return;
+            return true;
 
         ActivationFunction actF = getActivationFunction();
 
         double g = actF.outerGrad(net) - actF.outerGrad(lastNet);
         lastNet = net;
 
-        propagateGradientsOut(
-                Utils.scale(inputGradientSum, g)
+        return propagateGradientsOut(
+                thought.getGradientBuffer()
+                        .set(inputGradientSum)
+                        .scale(g)
         );
     }
 
-    public void propagateGradientsOut(double[] g) {
-        Utils.checkTolerance(this, g);
+    /**
+     * The gradient is only read and may be a scratch buffer; the steps created from it keep their own copy.
+     */
+    public boolean propagateGradientsOut(Gradient g) {
+        if(g.isBelowTolerance())
+            return false;
 
-        outputGradientSum = Utils.add(outputGradientSum, g);
+        if(outputGradientSum == null)
+            outputGradientSum = new Gradient();
+        outputGradientSum.add(g);
 
         if(!getNeuron().isInputNeuron())
-            addLinksToQueue(INPUT, new PropagateGradientAndUpdateWeight(g));
+            addLinksToQueue(INPUT, PropagateGradientAndUpdateWeight.perLink(g));
 
         if (getNeuron().isAllowTraining())
             QueueEntry.add(this,
-                    new UpdateBias(getConfig().getLearnRate() * Utils.sum(g))
+                    new UpdateBias(getConfig().getLearnRate() * g.sum())
             );
 
 
@@ -519,16 +646,20 @@ public class Activation extends Element<Activation> {
 //        addLinksToQueue(INPUT, LinkStep.TEMPLATE);
 
         if(!isActive(false))
-            return;
+            return true;
 
         QueueEntry.add(this, TEMPLATE_PROPAGATE_INPUT);
 
         QueueEntry.add(this, TEMPLATE_CLOSE_LOOP_OUTPUT);
         QueueEntry.add(this, TEMPLATE_PROPAGATE_OUTPUT);
+
+        return true;
     }
 
     public void propagateGradientIn(double g) {
-        inputGradient[INCOMING] += g;
+        if(inputGradient == null)
+            inputGradient = new Gradient();
+        inputGradient.addIncoming(g);
 
         if(Utils.belowTolerance(inputGradient))
             return;
@@ -570,9 +701,34 @@ public class Activation extends Element<Activation> {
         unlinkOutputs();
     }
 
-    public void computeBranchProbability() {
-        Set<Activation> conflictingActs = branches
+    /**
+     * Removes this activation from its thought and releases its input links. The links to output activations
+     * that are still alive are kept, so that their pending steps, such as the counting of the synapse, are still
+     * processed and the output activation does not mistake this input for a missing one. These links are
+     * released once the output activation is retired itself.
+     */
+    public void retire() {
+        inputLinks.values()
                 .stream()
+                .filter(l -> l.getInput() != null && !l.getInput().isRetired())
+                .forEach(l -> l.unlinkInput());
+
+        inputLinks.clear();
+        outputLinks.clear();
+        branches = null;
+        mainBranch = null;
+        retired = true;
+
+        thought.unregisterActivation(this);
+    }
+
+    @Override
+    public boolean isRetired() {
+        return retired;
+    }
+
+    public boolean computeBranchProbability() {
+        Set<Activation> conflictingActs = getBranches()
                 .flatMap(bAct -> bAct.getInputLinks())
                 .filter(l -> l.isNegative())
                 .flatMap(l -> l.getInput().getInputLinks())  // Walk through to the inhib. Activation.
@@ -593,10 +749,13 @@ public class Activation extends Element<Activation> {
 
         double p = Math.exp(net - offset) / norm;
 
-        Utils.checkTolerance(this, p - getBranchProbability());
+        if(Utils.belowTolerance(p - getBranchProbability()))
+            return false;
 
         Activation cAct = clone(null);
         cAct.branchProbability = p;
+
+        return true;
     }
 
     public void addLinksToQueue(Direction dir, LinkStep p) {
@@ -606,6 +765,13 @@ public class Activation extends Element<Activation> {
                 );
     }
 
+    public void addLinksToQueue(Direction dir, Supplier<LinkStep> p) {
+        dir.getLinks(this)
+                .forEach(l ->
+                        QueueEntry.add(l, p.get())
+                );
+    }
+
     public Stream<Link> getInputLinks() {
         return inputLinks.values().stream();
     }
@@ -615,7 +781,13 @@ public class Activation extends Element<Activation> {
     }
 
     public boolean hasBranches() {
-        return !branches.isEmpty();
+        return branches != null && !branches.isEmpty();
+    }
+
+    private Stream<Activation> getBranches() {
+        return branches != null ?
+                branches.stream() :
+                Stream.empty();
     }
 
     public String toShortString() {
@@ -646,7 +818,7 @@ public class Activation extends Element<Activation> {
         StringBuilder sb = new StringBuilder();
         sb.append("act " +
                 toShortString() +
-                " value:" + (value != null ? Utils.round(value) : "X") +
+                " value:" + (valueComputed ? Utils.round(value) : "X") +
                 " net:" + Utils.round(net) +
                 " bp:" + Utils.round(branchProbability)
         );
@@ -21,8 +21,6 @@ import network.aika.Thought;
 import network.aika.neuron.steps.Step;
 
 import java.util.Comparator;
-import java.util.NavigableSet;
-import java.util.TreeSet;
 import java.util.stream.Stream;
 
 /**
@@ -32,46 +30,138 @@ import java.util.stream.Stream;
  */
 public abstract class Element<E extends Element> implements Comparable<E> {
 
-    private NavigableSet<QueueEntry> queuedPhases = new TreeSet<>(Comparator
+    private static final Comparator<QueueEntry> COPY_ORDER = Comparator
             .<QueueEntry, String>comparing(qe -> qe.getStep().getClass().getSimpleName())
-            .thenComparing(qe -> qe.getTimestamp())
-    );
+            .thenComparing(qe -> qe.getTimestamp());
+
+    /**
+     * Bit set of the step ids for which a deduplicated entry of this element is currently queued.
+     */
+    private long queuedStepIds;
+
+    /**
+     * The queued entries of this element form an intrusive doubly linked list, which allows
+     * adding and removing entries without allocating any additional nodes.
+     */
+    private QueueEntry firstQueued;
+    private QueueEntry lastQueued;
 
     public abstract Fired getFired();
 
+    /**
+     * Returns true if the element has been removed from its thought. Queue entries of retired elements are
+     * skipped.
+     */
+    public boolean isRetired() {
+        return false;
+    }
+
     public void addQueuedStep(QueueEntry qe) {
-        queuedPhases.add(qe);
+        assert !qe.getStep().checkIfQueued() || !isQueued(qe.getStep());
+
+        qe.prevQueued = lastQueued;
+        qe.nextQueued = null;
+        if(lastQueued != null)
+            lastQueued.nextQueued = qe;
+        else
+            firstQueued = qe;
+        lastQueued = qe;
+
+        if(qe.getStep().checkIfQueued())
+            queuedStepIds |= stepIdMask(qe.getStep());
     }
 
     public boolean isQueued(Step s) {
-        return !queuedPhases.subSet(
-                new QueueEntry(s, this, Long.MIN_VALUE),
-                new QueueEntry(s, this, Long.MAX_VALUE)
-        ).isEmpty();
+        long mask = stepIdMask(s);
+        if(mask != 0l)
+            return (queuedStepIds & mask) != 0l;
+
+        int id = s.getId();
+        for(QueueEntry qe = firstQueued; qe != null; qe = qe.nextQueued) {
+            if(qe.getStep().getId() == id)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the most recently queued entry of the given step type, or null if there is none.
+     */
+    public QueueEntry getQueuedEntry(Step s) {
+        int id = s.getId();
+        for(QueueEntry qe = lastQueued; qe != null; qe = qe.prevQueued) {
+            if(qe.getStep().getId() == id)
+                return qe;
+        }
+        return null;
     }
 
     public void removeQueuedPhase(QueueEntry qe) {
-        queuedPhases.remove(qe);
+        if(qe.prevQueued == null && firstQueued != qe)
+            return;
+
+        if(qe.prevQueued != null)
+            qe.prevQueued.nextQueued = qe.nextQueued;
+        else
+            firstQueued = qe.nextQueued;
+
+        if(qe.nextQueued != null)
+            qe.nextQueued.prevQueued = qe.prevQueued;
+        else
+            lastQueued = qe.prevQueued;
+
+        qe.prevQueued = null;
+        qe.nextQueued = null;
+
+        if(qe.getStep().checkIfQueued())
+            queuedStepIds &= ~stepIdMask(qe.getStep());
+    }
+
+    private static long stepIdMask(Step s) {
+        int id = s.getId();
+        return id < Long.SIZE ? 1l << id : 0l;
     }
 
     public void replaceElement(Element newElement) {
         removeFromQueue();
         copyPhases(newElement);
-        queuedPhases.clear();
+        clearQueuedEntries();
+    }
+
+    /**
+     * Removes all queued entries of this element from the queue of the thought.
+     */
+    public void removeQueuedEntries() {
+        removeFromQueue();
+        clearQueuedEntries();
+    }
+
+    private void clearQueuedEntries() {
+        for(QueueEntry qe = firstQueued; qe != null;) {
+            QueueEntry next = qe.nextQueued;
+            qe.prevQueued = null;
+            qe.nextQueued = null;
+            qe = next;
+        }
+        firstQueued = null;
+        lastQueued = null;
+        queuedStepIds = 0l;
     }
 
     public void copyPhases(Element newElement) {
-        queuedPhases.stream().forEach(qe ->
-                QueueEntry.add(newElement, qe.getStep())
-        );
+        getQueuedEntries()
+                .sorted(COPY_ORDER)
+                .forEach(qe ->
+                        QueueEntry.add(newElement, qe.getStep())
+                );
     }
 
     public Stream<QueueEntry> getQueuedEntries() {
-        return queuedPhases.stream();
+        return Stream.iterate(firstQueued, qe -> qe != null, qe -> qe.nextQueued);
     }
 
     private void removeFromQueue() {
-        getThought().removeQueueEntries(queuedPhases);
+        getThought().removeQueueEntries(getQueuedEntries());
     }
 
     public abstract Thought getThought();
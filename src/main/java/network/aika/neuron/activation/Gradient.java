@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.neuron.activation;
+
+import network.aika.utils.Utils;
+
+/**
+ * Mutable gradient vector consisting of the gradient of the activations own cost function and the gradient
+ * that is propagated in from the output activations. All operations modify the vector in place.
+ *
+ * @author Lukas Molzberger
+ */
+public class Gradient {
+
+    private double own;
+    private double incoming;
+
+    public Gradient() {
+    }
+
+    public Gradient(Gradient g) {
+        set(g);
+    }
+
+    public double getOwn() {
+        return own;
+    }
+
+    public double getIncoming() {
+        return incoming;
+    }
+
+    public double sum() {
+        return own + incoming;
+    }
+
+    public boolean isBelowTolerance() {
+        return Utils.belowTolerance(sum());
+    }
+
+    public Gradient addOwn(double g) {
+        own += g;
+        return this;
+    }
+
+    public Gradient addIncoming(double g) {
+        incoming += g;
+        return this;
+    }
+
+    public Gradient add(Gradient g) {
+        own += g.own;
+        incoming += g.incoming;
+        return this;
+    }
+
+    public Gradient scale(double s) {
+        own *= s;
+        incoming *= s;
+        return this;
+    }
+
+    public Gradient set(Gradient g) {
+        own = g.own;
+        incoming = g.incoming;
+        return this;
+    }
+
+    public Gradient clear() {
+        own = 0.0;
+        incoming = 0.0;
+        return this;
+    }
+
+    public String toString() {
+        return "Own:" + Utils.round(own) + ", Incoming:" + Utils.round(incoming);
+    }
+}
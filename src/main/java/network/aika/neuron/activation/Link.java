@@ -75,6 +75,15 @@ public class Link extends Element<Link> {
         return output.getFired();
     }
 
+    /**
+     * A link is retired together with its output activation. Links whose input activation has been retired
+     * stay attached to the output activation until their remaining steps have been processed.
+     */
+    @Override
+    public boolean isRetired() {
+        return output.isRetired();
+    }
+
     public void count() {
         if(synapse != null)
             synapse.count(this);
@@ -91,20 +100,26 @@ public class Link extends Element<Link> {
     }
 
     public void follow(ActVisitor v, Scope ns) {
-        LinkVisitor lv = new LinkVisitor(v, getSynapse(), this, ns);
-
-        lv.onEvent(BEFORE);
-        Activation toAct = lv.getCurrentDir().getActivation(this);
-
-        toAct.follow(
-                new ActVisitor(lv, toAct)
-        );
-        lv.onEvent(AFTER);
+        LinkVisitor lv = v.nextLinkVisitor(getSynapse(), this, ns);
+        try {
+            lv.onEvent(BEFORE);
+            Activation toAct = lv.getCurrentDir().getActivation(this);
+
+            ActVisitor av = lv.nextActVisitor(toAct);
+            try {
+                toAct.follow(av);
+            } finally {
+                av.release();
+            }
+            lv.onEvent(AFTER);
+        } finally {
+            lv.release();
+        }
     }
 
-    public void computeInformationGainGradient() {
+    public boolean computeInformationGainGradient() {
         if(isNegative())
-            return; // TODO: Check under which conditions negative synapses could contribute to the cost function.
+            return true; // TODO: Check under which conditions negative synapses could contribute to the cost function.
 
         double igGradient = 0.0;
         for(Sign si: Sign.SIGNS) {
@@ -119,10 +134,13 @@ public class Link extends Element<Link> {
         }
 
         double igGradientDelta = igGradient - lastIGGradient;
-        Utils.checkTolerance(this, igGradientDelta);
+        if(Utils.belowTolerance(igGradientDelta))
+            return false;
 
         getOutput().propagateGradientIn(igGradientDelta);
         lastIGGradient = igGradient;
+
+        return true;
     }
 
 /*
@@ -160,11 +178,11 @@ public class Link extends Element<Link> {
     }
 
     public double getInputValue(Sign s) {
-        return s.getValue(input != null ? input.getValue() : Double.valueOf(0.0));
+        return s.getValue(input != null ? input.getValue() : 0.0);
     }
 
     public double getOutputValue(Sign s) {
-        return s.getValue(output != null ? output.getValue() : Double.valueOf(0.0));
+        return s.getValue(output != null ? output.getValue() : 0.0);
     }
 
     public Synapse getSynapse() {
@@ -191,29 +209,28 @@ public class Link extends Element<Link> {
         if(input == null)
             return;
 
-        input.outputLinks.put(
-                new OutputKey(output.getNeuronProvider(), output.getId()),
-                this
-        );
+        input.outputLinks.put(output.getOutputKey(), this);
     }
 
     public void linkOutput() {
-        output.inputLinks.put(input != null ? input.getNeuronProvider() : synapse.getPInput(), this);
+        output.inputLinks.put(
+                (input != null ? input.getNeuronProvider() : synapse.getPInput()).getId(),
+                this
+        );
     }
 
     public void unlinkInput() {
-        OutputKey ok = output.getOutputKey();
-        boolean successful = input.outputLinks.remove(ok, this);
+        boolean successful = input.outputLinks.remove(output.getOutputKey(), this);
         assert successful;
     }
 
     public void unlinkOutput() {
-        boolean successful = output.inputLinks.remove(input.getNeuronProvider(), this);
+        boolean successful = output.inputLinks.remove(input.getNeuronProvider().getId(), this);
         assert successful;
     }
 
-    public void sumUpLink(double delta) {
-        getOutput().updateNet(delta);
+    public boolean sumUpLink(double delta) {
+        return getOutput().updateNet(delta);
     }
 
     public boolean isNegative() {
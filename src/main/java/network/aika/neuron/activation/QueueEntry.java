@@ -16,6 +16,9 @@
  */
 package network.aika.neuron.activation;
 
+import network.aika.Config;
+import network.aika.Thought;
+import network.aika.neuron.steps.AccumulatingStep;
 import network.aika.neuron.steps.Step;
 
 import java.util.Comparator;
@@ -37,6 +40,13 @@ public class QueueEntry<S extends Step, E extends Element> {
     private Fired fired;
     private long timestamp;
 
+    QueueEntry prevQueued;
+    QueueEntry nextQueued;
+
+    // state of the entry within the scheduler, see Scheduler#remove(QueueEntry)
+    boolean scheduled;
+    boolean removed;
+
     public QueueEntry(S step, E element) {
         this.step = step;
         this.element = element;
@@ -51,12 +61,31 @@ public class QueueEntry<S extends Step, E extends Element> {
     }
 
     public static <S extends Step, E extends Element> void add(E e, S s) {
+        Thought t = e.getThought();
+        if(t.isProcessingWave()) {
+            t.deferQueueEntry(new QueueEntry(s, e));
+            return;
+        }
+
         if(s.checkIfQueued() && e.isQueued(s))
             return;
 
+        if(s instanceof AccumulatingStep && isCoalesceDeltaSteps(e)) {
+            QueueEntry pending = e.getQueuedEntry(s);
+            if(pending != null) {
+                ((AccumulatingStep) pending.step).accumulate((AccumulatingStep) s);
+                return;
+            }
+        }
+
         QueueEntry qe = new QueueEntry(s, e);
         e.addQueuedStep(qe);
-        e.getThought().addQueueEntry(qe);
+        t.addQueueEntry(qe);
+    }
+
+    private static boolean isCoalesceDeltaSteps(Element e) {
+        Config c = e.getConfig();
+        return c != null && c.isCoalesceDeltaSteps();
     }
 
     public S getStep() {
@@ -83,7 +112,7 @@ public class QueueEntry<S extends Step, E extends Element> {
         return element;
     }
 
-    public void process() {
-        step.process(element);
+    public boolean process() {
+        return step.process(element);
     }
 }
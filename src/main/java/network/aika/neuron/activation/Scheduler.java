@@ -0,0 +1,300 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.neuron.activation;
+
+import network.aika.neuron.steps.Phase;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static network.aika.neuron.activation.Fired.NOT_FIRED;
+
+/**
+ * The scheduler holds the queue entries of a thought. It yields the entries in exactly the order defined by
+ * {@link QueueEntry#COMPARATOR}, but instead of a single sorted tree it keeps a separate bucket queue for
+ * each {@link Phase}. Within a phase the entries are bucketed by the input timestamp of their {@link Fired}
+ * value and then by the fired counter. Since the timestamps of the queue entries are assigned in insertion
+ * order, each of these buckets is a plain FIFO queue.
+ *
+ * Removing an entry from the middle of a bucket would require a linear scan of the bucket. Therefore, removed
+ * entries are only marked and stay in their bucket until they reach its head, where they are discarded. The size
+ * counters of the scheduler and its buckets only count the entries that have not been removed. A removed entry
+ * may not be added again.
+ *
+ * @author Lukas Molzberger
+ */
+public class Scheduler {
+
+    private static final int PAGE_BITS = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private final PhaseQueue[] phaseQueues;
+
+    private int size;
+
+    public Scheduler() {
+        phaseQueues = new PhaseQueue[Phase.values().length];
+        for(int i = 0; i < phaseQueues.length; i++)
+            phaseQueues[i] = new PhaseQueue();
+    }
+
+    public void add(QueueEntry qe) {
+        assert !qe.scheduled && !qe.removed;
+
+        getPhaseQueue(qe).add(qe);
+        qe.scheduled = true;
+        size++;
+    }
+
+    public boolean remove(QueueEntry qe) {
+        if(!qe.scheduled)
+            return false;
+
+        getPhaseQueue(qe).remove(qe);
+        qe.scheduled = false;
+        qe.removed = true;
+        size--;
+        return true;
+    }
+
+    public QueueEntry pollFirst() {
+        if(size == 0)
+            return null;
+
+        for(PhaseQueue pq: phaseQueues) {
+            if(pq.size > 0) {
+                size--;
+                QueueEntry qe = pq.pollFirst();
+                qe.scheduled = false;
+                return qe;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    public QueueEntry peekFirst() {
+        if(size == 0)
+            return null;
+
+        for(PhaseQueue pq: phaseQueues) {
+            if(pq.size > 0)
+                return pq.peekFirst();
+        }
+        throw new IllegalStateException();
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Streams the queued entries in processing order.
+     */
+    public Stream<QueueEntry> stream() {
+        return Arrays.stream(phaseQueues)
+                .flatMap(pq -> pq.stream());
+    }
+
+    private PhaseQueue getPhaseQueue(QueueEntry qe) {
+        return phaseQueues[qe.getStep().getPhase().ordinal()];
+    }
+
+    private static ArrayDeque<QueueEntry> discardRemoved(ArrayDeque<QueueEntry> bucket) {
+        while(!bucket.isEmpty() && bucket.peekFirst().removed)
+            bucket.pollFirst();
+
+        return bucket;
+    }
+
+
+    /**
+     * Bucket queue of a single phase, keyed on the input timestamp of the fired value. Entries whose element
+     * has not been fired yet are processed first. The buckets are allocated in pages, which are released again
+     * as soon as they run empty.
+     */
+    private static class PhaseQueue {
+        private int size;
+
+        private final ArrayDeque<QueueEntry> notFired = new ArrayDeque<>();
+
+        private FiredQueue[][] pages = new FiredQueue[1][];
+        private int[] pageSizes = new int[1];
+
+        private int cursor;
+
+        public void add(QueueEntry qe) {
+            Fired f = qe.getFired();
+            if(f == NOT_FIRED) {
+                assert notFired.isEmpty() || notFired.peekLast().getTimestamp() < qe.getTimestamp();
+
+                notFired.addLast(qe);
+            } else {
+                int ts = f.getInputTimestamp();
+                assert ts >= 0;
+
+                int p = ts >>> PAGE_BITS;
+                if(p >= pages.length) {
+                    int newLength = Math.max(p + 1, 2 * pages.length);
+                    pages = Arrays.copyOf(pages, newLength);
+                    pageSizes = Arrays.copyOf(pageSizes, newLength);
+                }
+
+                FiredQueue[] page = pages[p];
+                if(page == null) {
+                    page = new FiredQueue[PAGE_SIZE];
+                    pages[p] = page;
+                }
+
+                int i = ts & (PAGE_SIZE - 1);
+                FiredQueue fq = page[i];
+                if(fq == null) {
+                    fq = new FiredQueue();
+                    page[i] = fq;
+                }
+
+                fq.add(qe);
+                pageSizes[p]++;
+
+                if(ts < cursor)
+                    cursor = ts;
+            }
+            size++;
+        }
+
+        /**
+         * Only updates the size counters, the entry itself is discarded once it reaches the head of its bucket.
+         */
+        public void remove(QueueEntry qe) {
+            Fired f = qe.getFired();
+            if(f != NOT_FIRED) {
+                int ts = f.getInputTimestamp();
+                int p = ts >>> PAGE_BITS;
+                pages[p][ts & (PAGE_SIZE - 1)].size--;
+                releasePageIfEmpty(p);
+            }
+            size--;
+        }
+
+        public QueueEntry pollFirst() {
+            size--;
+            if(!discardRemoved(notFired).isEmpty())
+                return notFired.pollFirst();
+
+            QueueEntry qe = firstFiredQueue().pollFirst();
+            releasePageIfEmpty(cursor >>> PAGE_BITS);
+            return qe;
+        }
+
+        public QueueEntry peekFirst() {
+            if(!discardRemoved(notFired).isEmpty())
+                return notFired.peekFirst();
+
+            return firstFiredQueue().peekFirst();
+        }
+
+        private FiredQueue firstFiredQueue() {
+            while(true) {
+                int p = cursor >>> PAGE_BITS;
+                if(pageSizes[p] == 0) {
+                    cursor = (p + 1) << PAGE_BITS;
+                    continue;
+                }
+
+                FiredQueue fq = pages[p][cursor & (PAGE_SIZE - 1)];
+                if(fq != null && fq.size > 0)
+                    return fq;
+
+                cursor++;
+            }
+        }
+
+        private void releasePageIfEmpty(int p) {
+            if(--pageSizes[p] == 0)
+                pages[p] = null;
+        }
+
+        public Stream<QueueEntry> stream() {
+            return Stream.concat(
+                    notFired.stream(),
+                    Arrays.stream(pages)
+                            .filter(page -> page != null)
+                            .flatMap(page -> Arrays.stream(page))
+                            .filter(fq -> fq != null)
+                            .flatMap(fq -> fq.stream())
+            ).filter(qe -> !qe.removed);
+        }
+    }
+
+
+    /**
+     * FIFO queues for a single input timestamp, one for each value of the fired counter.
+     */
+    private static class FiredQueue {
+        private int size;
+
+        private ArrayDeque<QueueEntry>[] levels = new ArrayDeque[2];
+
+        private int cursor;
+
+        public void add(QueueEntry qe) {
+            int l = qe.getFired().getFired();
+            if(l >= levels.length)
+                levels = Arrays.copyOf(levels, Math.max(l + 1, 2 * levels.length));
+
+            ArrayDeque<QueueEntry> level = levels[l];
+            if(level == null) {
+                level = new ArrayDeque<>();
+                levels[l] = level;
+            }
+
+            assert level.isEmpty() || level.peekLast().getTimestamp() < qe.getTimestamp();
+
+            level.addLast(qe);
+            size++;
+
+            if(l < cursor)
+                cursor = l;
+        }
+
+        public QueueEntry pollFirst() {
+            size--;
+            return firstLevel().pollFirst();
+        }
+
+        public QueueEntry peekFirst() {
+            return firstLevel().peekFirst();
+        }
+
+        private ArrayDeque<QueueEntry> firstLevel() {
+            while(levels[cursor] == null || discardRemoved(levels[cursor]).isEmpty())
+                cursor++;
+
+            return levels[cursor];
+        }
+
+        public Stream<QueueEntry> stream() {
+            return Arrays.stream(levels)
+                    .filter(level -> level != null)
+                    .flatMap(level -> level.stream());
+        }
+    }
+}
@@ -22,6 +22,7 @@ import network.aika.neuron.activation.Activation;
 import network.aika.neuron.activation.Link;
 import network.aika.neuron.scope.Scope;
 
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -32,6 +33,8 @@ public interface Direction {
     Direction INPUT = new Input();
     Direction OUTPUT = new Output();
 
+    Direction[] DIRECTIONS = new Direction[] {INPUT, OUTPUT};
+
     Direction invert();
 
     Direction combine(Direction dir);
@@ -50,6 +53,8 @@ public interface Direction {
 
     Stream<? extends Synapse> getSynapses(Neuron<?> n);
 
+    void forEachSynapse(Neuron<?> n, Consumer<? super Synapse> c);
+
     default Stream<? extends Synapse> getSynapsesInvertRecurrent(Neuron<?> n) {
         return Stream.concat(
                 getSynapses(n)
@@ -65,6 +70,25 @@ public interface Direction {
                 getSynapses(n);
     }
 
+    /**
+     * Stream free counterpart of {@link #getSynapses(Neuron, boolean)}, which visits the synapses in the same order.
+     */
+    default void forEachSynapse(Neuron<?> n, boolean invertRecurrent, Consumer<? super Synapse> c) {
+        if(!invertRecurrent) {
+            forEachSynapse(n, c);
+            return;
+        }
+
+        forEachSynapse(n, s -> {
+            if(!s.isRecurrent())
+                c.accept(s);
+        });
+        invert().forEachSynapse(n, s -> {
+            if(s.isRecurrent())
+                c.accept(s);
+        });
+    }
+
     boolean linkExists(Activation act, Synapse s);
 
     static int compare(Direction a, Direction b) {
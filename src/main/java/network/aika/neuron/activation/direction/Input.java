@@ -22,6 +22,7 @@ import network.aika.neuron.activation.Activation;
 import network.aika.neuron.activation.Link;
 import network.aika.neuron.scope.Scope;
 
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -82,6 +83,11 @@ public class Input implements Direction {
         return n.getInputSynapses();
     }
 
+    @Override
+    public void forEachSynapse(Neuron<?> n, Consumer<? super Synapse> c) {
+        n.forEachInputSynapse(c);
+    }
+
     public String toString() {
         return "INPUT";
     }
@@ -22,6 +22,7 @@ import network.aika.neuron.activation.Activation;
 import network.aika.neuron.activation.Link;
 import network.aika.neuron.scope.Scope;
 
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -79,6 +80,11 @@ public class Output implements Direction {
         return n.getOutputSynapses();
     }
 
+    @Override
+    public void forEachSynapse(Neuron<?> n, Consumer<? super Synapse> c) {
+        n.forEachOutputSynapse(c);
+    }
+
     public String toString() {
         return "OUTPUT";
     }
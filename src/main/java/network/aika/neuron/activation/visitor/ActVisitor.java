@@ -16,10 +16,16 @@
  */
 package network.aika.neuron.activation.visitor;
 
+import network.aika.neuron.Synapse;
 import network.aika.neuron.activation.Activation;
+import network.aika.neuron.activation.Link;
 import network.aika.neuron.activation.direction.Direction;
+import network.aika.neuron.scope.Scope;
 
 /**
+ * A traversal does not skip states that it has already expanded on another path. The marked activations of the
+ * current path restrict each expansion, so a repeated state could only be skipped if the same activations were
+ * still marked, which did not occur on the inference and training workloads.
  *
  * @author Lukas Molzberger
  */
@@ -31,16 +37,55 @@ public class ActVisitor extends Visitor {
     }
 
     public ActVisitor(LinkVisitor v, Activation act) {
-        super(v);
+        init(v, act);
+    }
+
+    public ActVisitor(VisitorTask task, Synapse targetSynapse, Activation act, Direction startDir, Direction currentDir) {
+        init(null, task, targetSynapse, act, startDir, currentDir);
+    }
+
+    public ActVisitor init(LinkVisitor v, Activation act) {
+        init(v);
         this.act = act;
+        return this;
     }
 
-    public ActVisitor(VisitorTask task, Activation act, Direction startDir, Direction currentDir) {
+    /**
+     * Initializes this visitor as the origin of a new traversal.
+     */
+    public ActVisitor init(VisitorStack stack, VisitorTask task, Synapse targetSynapse, Activation act, Direction startDir, Direction currentDir) {
+        clear();
+        this.stack = stack;
         this.task = task;
+        this.targetSynapse = targetSynapse;
         this.origin = this;
         this.act = act;
         this.startDir = startDir;
         this.currentDir = currentDir;
+        return this;
+    }
+
+    /**
+     * Returns a visitor for the given link, taken from the stack of this traversal if there is one. It has to
+     * be released with {@link LinkVisitor#release()}.
+     */
+    public LinkVisitor nextLinkVisitor(Synapse<?, ?> syn, Link l, Scope ns) {
+        LinkVisitor lv = stack != null ?
+                stack.acquireLinkVisitor() :
+                new LinkVisitor();
+
+        return lv.init(this, syn, l, ns);
+    }
+
+    public void release() {
+        if(stack != null)
+            stack.releaseActVisitor(this);
+    }
+
+    @Override
+    protected void clear() {
+        super.clear();
+        act = null;
     }
 
     public Activation getActivation() {
@@ -17,6 +17,7 @@
 package network.aika.neuron.activation.visitor;
 
 import network.aika.neuron.Synapse;
+import network.aika.neuron.activation.Activation;
 import network.aika.neuron.activation.Link;
 import network.aika.neuron.scope.Scope;
 
@@ -29,17 +30,48 @@ public class LinkVisitor extends Visitor {
 
     private Link link;
 
+    public LinkVisitor() {
+    }
+
     public LinkVisitor(ActVisitor v, Synapse<?, ?> syn, Link l) {
-        super(v);
+        init(v, syn, l, v.getScope());
+    }
+
+    public LinkVisitor(ActVisitor v, Synapse<?, ?> syn, Link l, Scope ns) {
+        init(v, syn, l, ns);
+    }
+
+    public LinkVisitor init(ActVisitor v, Synapse<?, ?> syn, Link l, Scope ns) {
+        init(v);
         link = l;
         incrementPathLength();
 
         onCandidateEvent(syn);
+        scope = ns;
+        return this;
     }
 
-    public LinkVisitor(ActVisitor v, Synapse<?, ?> syn, Link l, Scope ns) {
-        this(v, syn, l);
-        scope = ns;
+    /**
+     * Returns a visitor for the given activation, taken from the stack of this traversal if there is one. It
+     * has to be released with {@link ActVisitor#release()}.
+     */
+    public ActVisitor nextActVisitor(Activation act) {
+        ActVisitor av = stack != null ?
+                stack.acquireActVisitor() :
+                new ActVisitor();
+
+        return av.init(this, act);
+    }
+
+    public void release() {
+        if(stack != null)
+            stack.releaseLinkVisitor(this);
+    }
+
+    @Override
+    protected void clear() {
+        super.clear();
+        link = null;
     }
 
     public void setLink(Link link) {
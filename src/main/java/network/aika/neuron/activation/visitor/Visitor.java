@@ -34,9 +34,11 @@ import static network.aika.neuron.activation.direction.Direction.INPUT;
  * @author Lukas Molzberger
  */
 public abstract class Visitor {
+    protected VisitorStack stack;
     protected ActVisitor origin;
     private Visitor previousStep;
     protected VisitorTask task;
+    protected Synapse targetSynapse;
     protected Direction startDir;
     protected Direction currentDir;
 
@@ -47,8 +49,17 @@ public abstract class Visitor {
     protected Visitor() {}
 
     public Visitor(Visitor v) {
+        init(v);
+    }
+
+    /**
+     * Initializes this visitor as the next step of the given visitor.
+     */
+    protected void init(Visitor v) {
+        stack = v.stack;
         previousStep = v;
         task = v.task;
+        targetSynapse = v.targetSynapse;
         origin = v.origin;
         startDir = v.startDir;
         currentDir = v.currentDir;
@@ -57,11 +68,34 @@ public abstract class Visitor {
         scope = v.scope;
     }
 
+    /**
+     * Releases the references of this visitor, so that a pooled visitor does not keep the activations of
+     * the last traversal alive.
+     */
+    protected void clear() {
+        stack = null;
+        origin = null;
+        previousStep = null;
+        task = null;
+        targetSynapse = null;
+        downSteps = 0;
+        upSteps = 0;
+        scope = Scope.SAME;
+    }
+
     public void switchDirection() {
         assert currentDir == INPUT;
         currentDir = currentDir.invert();
     }
 
+    /**
+     * Returns the stack the frames of this traversal are taken from, or null if the visitors are allocated
+     * individually.
+     */
+    public VisitorStack getStack() {
+        return stack;
+    }
+
     public Visitor getPreviousStep() {
         return previousStep;
     }
@@ -90,6 +124,10 @@ public abstract class Visitor {
         return task;
     }
 
+    public Synapse getTargetSynapse() {
+        return targetSynapse;
+    }
+
     public Activation getOriginAct() {
         return origin.getActivation();
     }
@@ -110,11 +148,15 @@ public abstract class Visitor {
     }
 
     public void onEvent(VisitorEvent ve) {
-        getThought().onVisitorEvent(this, ve);
+        Thought t = getThought();
+        if(t.hasVisitorEventListeners())
+            t.onVisitorEvent(this, ve);
     }
 
     public void onCandidateEvent(Synapse s) {
-        getThought().onVisitorCandidateEvent(this, s);
+        Thought t = getThought();
+        if(t.hasVisitorEventListeners())
+            t.onVisitorCandidateEvent(this, s);
     }
 
     public String toStringRecursive() {
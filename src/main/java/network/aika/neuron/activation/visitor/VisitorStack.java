@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.neuron.activation.visitor;
+
+import java.util.Arrays;
+
+/**
+ * Reusable visitor frames for the depth first traversal of the activation graph. A frame is acquired when
+ * the traversal descends to the next link or activation and released again on the way back. Once the stack
+ * has grown to the maximum depth of the traversals, no further visitors are allocated.
+ *
+ * A visitor obtained from this stack is only valid until it is released, so it must not be retained, for
+ * example by a visitor event listener.
+ *
+ * @author Lukas Molzberger
+ */
+public class VisitorStack {
+
+    private ActVisitor[] actVisitors = new ActVisitor[8];
+    private LinkVisitor[] linkVisitors = new LinkVisitor[8];
+
+    private int actDepth;
+    private int linkDepth;
+
+    public ActVisitor acquireActVisitor() {
+        if(actDepth == actVisitors.length)
+            actVisitors = Arrays.copyOf(actVisitors, 2 * actVisitors.length);
+
+        ActVisitor v = actVisitors[actDepth];
+        if(v == null) {
+            v = new ActVisitor();
+            actVisitors[actDepth] = v;
+        }
+        actDepth++;
+        return v;
+    }
+
+    public void releaseActVisitor(ActVisitor v) {
+        assert actVisitors[actDepth - 1] == v;
+
+        v.clear();
+        actDepth--;
+    }
+
+    public LinkVisitor acquireLinkVisitor() {
+        if(linkDepth == linkVisitors.length)
+            linkVisitors = Arrays.copyOf(linkVisitors, 2 * linkVisitors.length);
+
+        LinkVisitor v = linkVisitors[linkDepth];
+        if(v == null) {
+            v = new LinkVisitor();
+            linkVisitors[linkDepth] = v;
+        }
+        linkDepth++;
+        return v;
+    }
+
+    public void releaseLinkVisitor(LinkVisitor v) {
+        assert linkVisitors[linkDepth - 1] == v;
+
+        v.clear();
+        linkDepth--;
+    }
+
+    public int getDepth() {
+        return actDepth;
+    }
+}
@@ -44,9 +44,7 @@ public class BindingNeuron extends ExcitatoryNeuron<BindingNeuronSynapse> {
         if(n.isInputNeuron())
             return false;
 
-        Utils.checkTolerance(act, act.getOutputGradientSum());
-
-        return true;
+        return !Utils.belowTolerance(act.getOutputGradientSum());
     }
 
     @Override
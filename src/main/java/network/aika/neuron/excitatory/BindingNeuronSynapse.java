@@ -58,12 +58,14 @@ public abstract class BindingNeuronSynapse<I extends Neuron<?>> extends Excitato
     }
 
     public boolean checkTemplatePropagate(Direction dir, Activation act) {
-        if(dir == OUTPUT) {
-            log.info(act.getLabel() + " BiasLB:" + getOutput().computeBiasLB(act));
-        }
+        if(dir != OUTPUT)
+            return false;
+
+        double biasLB = getOutput().computeBiasLB(act);
+        if(log.isDebugEnabled())
+            log.debug(act.getLabel() + " BiasLB:" + biasLB);
 
-        return dir == OUTPUT &&
-                getOutput().computeBiasLB(act) >= PROPAGATE_THRESHOLD_LB;
+        return biasLB >= PROPAGATE_THRESHOLD_LB;
     }
 
     protected void initFromTemplate(Synapse s) {
@@ -21,6 +21,7 @@ import network.aika.neuron.ActivationFunction;
 import network.aika.neuron.Neuron;
 import network.aika.neuron.NeuronProvider;
 import network.aika.neuron.Synapse;
+import network.aika.neuron.WeightSortedSynapses;
 import network.aika.neuron.activation.Activation;
 import network.aika.neuron.activation.Fired;
 import network.aika.neuron.activation.Link;
@@ -31,8 +32,6 @@ import org.slf4j.LoggerFactory;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
-import java.util.Comparator;
-import java.util.TreeSet;
 
 import static network.aika.neuron.ActivationFunction.RECTIFIED_HYPERBOLIC_TANGENT;
 
@@ -47,6 +46,8 @@ public abstract class ExcitatoryNeuron<S extends ExcitatorySynapse> extends Neur
     private volatile double directConjunctiveBias;
     private volatile double recurrentConjunctiveBias;
 
+    private final WeightSortedSynapses weightSortedSynapses = new WeightSortedSynapses();
+
     public ExcitatoryNeuron() {
         super();
     }
@@ -66,16 +67,16 @@ public abstract class ExcitatoryNeuron<S extends ExcitatorySynapse> extends Neur
         n.recurrentConjunctiveBias = recurrentConjunctiveBias;
     }
 
-    public void setDirectConjunctiveBias(double b) {
+    public synchronized void setDirectConjunctiveBias(double b) {
         directConjunctiveBias = b;
         limitBias();
     }
 
-    public void setRecurrentConjunctiveBias(double b) {
+    public synchronized void setRecurrentConjunctiveBias(double b) {
         recurrentConjunctiveBias = b;
     }
 
-    public void addConjunctiveBias(double b, boolean recurrent) {
+    public synchronized void addConjunctiveBias(double b, boolean recurrent) {
         if(recurrent) {
             recurrentConjunctiveBias += b;
         } else {
@@ -89,13 +90,10 @@ public abstract class ExcitatoryNeuron<S extends ExcitatorySynapse> extends Neur
     }
 
     public void addDummyLinks(Activation act) {
-        inputSynapses
-                .values()
-                .stream()
-                .filter(s -> !act.inputLinkExists(s))
-                .forEach(s ->
-                        new Link(s, null, act, false)
-                );
+        inputSynapses.forEach(s -> {
+            if(!act.inputLinkExists(s))
+                new Link(s, null, act, false);
+        });
     }
 
     public ActivationFunction getActivationFunction() {
@@ -115,22 +113,33 @@ public abstract class ExcitatoryNeuron<S extends ExcitatorySynapse> extends Neur
         return recurrentConjunctiveBias;
     }
 
-    public void updateSynapseInputLinks() {
-        TreeSet<Synapse> sortedSynapses = new TreeSet<>(
-                Comparator.<Synapse>comparingDouble(s -> s.getWeight()).reversed()
-                        .thenComparing(s -> s.getPInput())
-        );
-
-        sortedSynapses.addAll(inputSynapses.values());
+    @Override
+    public void addInputSynapse(S s) {
+        S os = inputSynapses.put(s.getPInput().getId(), s);
+        if(os != s) {
+            if(os != null)
+                weightSortedSynapses.remove(os);
+            weightSortedSynapses.add(s);
+            setModified(true);
+        }
+    }
 
-        double sum = getBias();
-        for(Synapse s: sortedSynapses) {
-            if(s.getWeight() <= 0.0) break;
+    @Override
+    public void removeInputSynapse(S s) {
+        if(inputSynapses.remove(s.getPInput().getId()) != null) {
+            weightSortedSynapses.remove(s);
+            setModified(true);
+        }
+    }
 
-            s.updateInputLink(sum > 0.0);
+    @Override
+    public void updateWeightIndex(Synapse s) {
+        weightSortedSynapses.update(s);
+    }
 
-            sum -= s.getWeight();
-        }
+    @Override
+    public void updateSynapseInputLinks() {
+        weightSortedSynapses.updateInputLinks(getBias());
     }
 
     @Override
@@ -145,6 +154,9 @@ public abstract class ExcitatoryNeuron<S extends ExcitatorySynapse> extends Neur
     public void readFields(DataInput in, Model m) throws Exception {
         super.readFields(in, m);
 
+        // the loaded synapses bypass addInputSynapse, so the weight index has to be rebuilt
+        forEachInputSynapse(weightSortedSynapses::add);
+
         directConjunctiveBias = in.readDouble();
         recurrentConjunctiveBias = in.readDouble();
     }
@@ -186,7 +198,7 @@ public abstract class ExcitatoryNeuron<S extends ExcitatorySynapse> extends Neur
 
     public String outStatToString() {
         StringBuilder sb = new StringBuilder();
-        outputSynapses.values().stream()
+        outputSynapses.stream()
                 .filter(s -> s instanceof InhibitorySynapse)
                 .forEach(s ->
                         sb.append("  out " +
@@ -35,9 +35,9 @@ public abstract class ExcitatorySynapse<I extends Neuron<?>, O extends Excitator
         if(l.getInput().isActive(true)) {
             addWeight(delta);
 
-            QueueEntry.add(
+            SumUpLink.add(
                     l,
-                    new SumUpLink(l.getInputValue(POS) * delta)
+                    l.getInputValue(POS) * delta
             );
         } else {
             addWeight(-delta);
@@ -47,9 +47,9 @@ public abstract class ExcitatorySynapse<I extends Neuron<?>, O extends Excitator
                     l.getOutput(),
                     new SumUpBias(delta)
             );
-            QueueEntry.add(
+            SumUpLink.add(
                     l,
-                    new SumUpLink((l.getInputValue(POS) * -delta) + delta)
+                    (l.getInputValue(POS) * -delta) + delta
             );
         }
     }
@@ -21,7 +21,6 @@ import network.aika.neuron.Synapse;
 import network.aika.neuron.Templates;
 import network.aika.neuron.activation.Activation;
 import network.aika.neuron.activation.Link;
-import network.aika.neuron.activation.QueueEntry;
 import network.aika.neuron.activation.direction.Direction;
 import network.aika.neuron.activation.visitor.ActVisitor;
 import network.aika.neuron.activation.visitor.LinkVisitor;
@@ -65,9 +64,9 @@ public abstract class InhibitorySynapse extends Synapse<Neuron<?>, InhibitoryNeu
         if(l.getInput().isActive(true)) {
             addWeight(delta);
 
-            QueueEntry.add(
+            SumUpLink.add(
                     l,
-                    new SumUpLink(l.getInputValue(POS) * delta)
+                    l.getInputValue(POS) * delta
             );
         }
     }
@@ -27,8 +27,8 @@ public class Negative implements Sign {
     }
 
     @Override
-    public double getValue(Double x) {
-        return x != null ? 1.0 - x : 1.0;
+    public double getValue(double x) {
+        return 1.0 - x;
     }
 
     public String toString() {
@@ -27,8 +27,8 @@ public class Positive implements Sign {
     }
 
     @Override
-    public double getValue(Double x) {
-        return x != null ? x : 0.0;
+    public double getValue(double x) {
+        return x;
     }
 
     public String toString() {
@@ -36,5 +36,8 @@ public interface Sign {
         return act.isActive(false) ? POS : NEG;
     }
 
-    double getValue(Double x);
+    /**
+     * @param x The value of an activation, which is 0.0 if it has not been computed yet.
+     */
+    double getValue(double x);
 }
@@ -14,31 +14,18 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package network.aika.neuron.activation;
+package network.aika.neuron.steps;
 
-import network.aika.neuron.NeuronProvider;
-
-import java.util.Comparator;
+import network.aika.neuron.activation.Element;
 
 /**
+ * A step that carries a delta. If delta coalescing is enabled in the {@link network.aika.Config}, the delta of
+ * a newly added step is merged into a still pending step of the same type for the same element instead of
+ * creating a new queue entry.
  *
  * @author Lukas Molzberger
  */
-public class OutputKey {
-
-    public static final Comparator<OutputKey> COMPARATOR = Comparator
-            .<OutputKey, NeuronProvider>comparing(ok -> ok.n)
-            .thenComparingInt(ok -> ok.actId);
-
-    private NeuronProvider n;
-    private Integer actId;
-
-    public OutputKey(NeuronProvider n, Integer actId) {
-        this.n = n;
-        this.actId = actId;
-    }
+public interface AccumulatingStep<E extends Element, S extends AccumulatingStep<E, S>> extends Step<E> {
 
-    public String toString() {
-        return "[" + n.getId() + "]:" + actId;
-    }
+    void accumulate(S s);
 }
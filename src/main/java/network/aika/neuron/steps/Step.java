@@ -18,17 +18,49 @@ package network.aika.neuron.steps;
 
 import network.aika.neuron.activation.Element;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * @author Lukas Molzberger
  */
 public interface Step<E extends Element> {
 
-    void process(E e);
+    ClassValue<Integer> STEP_IDS = new ClassValue<>() {
+        private final AtomicInteger idCounter = new AtomicInteger();
+
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return idCounter.getAndIncrement();
+        }
+    };
+
+    /**
+     * Returns false if the step has been pruned, since the change it was about to propagate was below the
+     * tolerance threshold.
+     */
+    boolean process(E e);
 
     Phase getPhase();
 
     boolean checkIfQueued();
 
+    /**
+     * Returns the object whose state is modified when this step is processed for the given element, or null
+     * if the step has to be processed sequentially. Entries of the same wave with different conflict keys may
+     * be processed in parallel. See {@link network.aika.Config#setForkJoinPool}.
+     */
+    default Object getConflictKey(E e) {
+        return null;
+    }
+
+    /**
+     * Returns a small integer id that is shared by all instances of a step class. It is used to
+     * keep track of the queued steps of an element without comparing class names.
+     */
+    default int getId() {
+        return STEP_IDS.get(getClass());
+    }
+
     static String toString(Step p) {
         return " (" + (p != null ? p.toString() : "X") + ")";
     }
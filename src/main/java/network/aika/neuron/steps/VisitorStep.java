@@ -23,8 +23,10 @@ import network.aika.neuron.activation.Element;
 import network.aika.neuron.activation.Link;
 import network.aika.neuron.activation.direction.Direction;
 import network.aika.neuron.activation.visitor.ActVisitor;
+import network.aika.neuron.activation.visitor.VisitorStack;
 import network.aika.neuron.activation.visitor.VisitorTask;
 
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static network.aika.neuron.activation.direction.Direction.INPUT;
@@ -36,8 +38,12 @@ import static network.aika.neuron.activation.direction.Direction.OUTPUT;
  */
 public abstract class VisitorStep implements VisitorTask {
 
+    /**
+     * The visitor frames of the traversals. Since the steps are shared, each thread uses its own stack.
+     */
+    private static final ThreadLocal<VisitorStack> VISITOR_STACK = ThreadLocal.withInitial(VisitorStack::new);
+
     protected Direction direction;
-    protected Synapse targetSynapse;
 
     public VisitorStep(Direction dir) {
         this.direction = dir;
@@ -47,6 +53,14 @@ public abstract class VisitorStep implements VisitorTask {
 
     public abstract Stream<? extends Synapse> getTargetSynapses(Activation act, Direction dir, boolean invertRecurrent);
 
+    /**
+     * Visits the same synapses as {@link #getTargetSynapses}, without setting up a stream pipeline.
+     */
+    public void forEachTargetSynapse(Activation act, Direction dir, boolean invertRecurrent, Consumer<? super Synapse> c) {
+        getTargetSynapses(act, dir, invertRecurrent)
+                .forEach(c);
+    }
+
     protected abstract boolean opposingNeuronMatches(Neuron<?> currentN, Neuron<?> targetN);
 
     protected abstract void closeLoopIntern(ActVisitor v, Activation iAct, Activation oAct);
@@ -55,11 +69,6 @@ public abstract class VisitorStep implements VisitorTask {
 
     public abstract void getNextSteps(Link l);
 
-
-    public Synapse getTargetSynapse() {
-        return targetSynapse;
-    }
-
     @Override
     public void processTask(ActVisitor v) {
         /*
@@ -72,6 +81,7 @@ public abstract class VisitorStep implements VisitorTask {
         if(v.getActivation() == v.getOriginAct())
             return;
 
+        Synapse targetSynapse = v.getTargetSynapse();
         if(!targetSynapse.checkLoopClosure(v))
             return;
 
@@ -95,51 +105,55 @@ public abstract class VisitorStep implements VisitorTask {
 
     @Override
     public void transition(ActVisitor v, Synapse s, Link l) {
-        targetSynapse.transition(v, s, l);
+        v.getTargetSynapse().transition(v, s, l);
     }
 
     public void link(Link l) {
         Direction startDir = l.getSynapse().getStartDir(direction);
         Activation startAct = startDir.invert().getActivation(l);
 
-        getTargetSynapses(startAct, direction, true) // startDir?
-                .forEach(ts ->
-                        follow(l, startDir, startAct, ts)
-                );
+        forEachTargetSynapse(startAct, direction, true, ts -> // startDir?
+                follow(l, startDir, startAct, ts)
+        );
     }
 
     public void link(Activation startAct) {
-        getTargetSynapses(startAct, direction, true)
-                .forEach(ts ->
-                        follow(startAct, ts)
-                );
+        forEachTargetSynapse(startAct, direction, true, ts ->
+                follow(startAct, ts)
+        );
     }
 
     private void follow(Link l, Direction startDir, Activation startAct, Synapse ts) {
         startAct.setMarked(true);
-        targetSynapse = ts;
-        ActVisitor v = new ActVisitor(this, startAct, startDir, startDir);
-        ts.transition(v, l.getSynapse(), l);
+        ActVisitor v = acquireVisitor(ts, startAct, startDir, startDir);
+        try {
+            ts.transition(v, l.getSynapse(), l);
+        } finally {
+            v.release();
+        }
 
-        targetSynapse = null;
         startAct.setMarked(false);
     }
 
     private void follow(Activation startAct, Synapse ts) {
-        targetSynapse = ts;
-        startAct.follow(
-                new ActVisitor(this, startAct, direction, INPUT)
-        );
-        targetSynapse = null;
+        ActVisitor v = acquireVisitor(ts, startAct, direction, INPUT);
+        try {
+            startAct.follow(v);
+        } finally {
+            v.release();
+        }
+    }
+
+    private ActVisitor acquireVisitor(Synapse ts, Activation startAct, Direction startDir, Direction currentDir) {
+        VisitorStack stack = VISITOR_STACK.get();
+        return stack.acquireActVisitor()
+                .init(stack, this, ts, startAct, startDir, currentDir);
     }
 
     public void propagate(Activation act) {
-        getTargetSynapses(act, direction, false)
-                .filter(s ->
-                        checkPropagate(act, s)
-                )
-                .forEach(s ->
-                        s.propagate(act, direction, this, false)
-                );
+        forEachTargetSynapse(act, direction, false, s -> {
+            if(checkPropagate(act, s))
+                s.propagate(act, direction, this, false);
+        });
     }
 }
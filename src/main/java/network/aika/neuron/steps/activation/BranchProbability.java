@@ -36,8 +36,8 @@ public class BranchProbability implements ActivationStep {
     }
 
     @Override
-    public void process(Activation act) {
-        act.computeBranchProbability();
+    public boolean process(Activation act) {
+        return act.computeBranchProbability();
     }
 
     public boolean checkIfQueued() {
@@ -26,13 +26,16 @@ import network.aika.neuron.steps.Phase;
 public class CheckIfFired implements ActivationStep {
 
     @Override
-    public void process(Activation act) {
-        act.updateValue();
+    public boolean process(Activation act) {
+        if(!act.updateValue())
+            return false;
 
         if(!act.checkIfFired())
-            return;
+            return true;
 
         act.propagate();
+
+        return true;
     }
 
     @Override
@@ -33,14 +33,21 @@ public class Counting implements ActivationStep {
     }
 
     @Override
-    public void process(Activation act) {
+    public boolean process(Activation act) {
         act.getNeuron().count(act);
+
+        return true;
     }
 
     public boolean checkIfQueued() {
         return true;
     }
 
+    @Override
+    public Object getConflictKey(Activation act) {
+        return act.getNeuron();
+    }
+
     public String toString() {
         return "Act-Step: Counting";
     }
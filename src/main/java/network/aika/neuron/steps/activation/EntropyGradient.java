@@ -41,17 +41,20 @@ public class EntropyGradient implements ActivationStep {
     }
 
     @Override
-    public void process(Activation act) {
+    public boolean process(Activation act) {
         Neuron n = act.getNeuron();
 
         if(n.isTemplate())
-            return;
+            return true;
 
         act.initEntropyGradient();
 
-        Utils.checkTolerance(act, act.getInputGradient());
+        if(Utils.belowTolerance(act.getInputGradient()))
+            return false;
 
         QueueEntry.add(act, PROPAGATE_GRADIENTS_SUM);
+
+        return true;
     }
 
     public String toString() {
@@ -38,7 +38,7 @@ public class Induction implements ActivationStep {
     }
 
     @Override
-    public void process(Activation act) {
+    public boolean process(Activation act) {
         assert act.getNeuron().isTemplate();
 
         Neuron inducedNeuron = act.getNeuron().instantiateTemplate(true);
@@ -50,9 +50,9 @@ public class Induction implements ActivationStep {
 
         act.link();
 
-        Utils.checkTolerance(act, inducedNeuron.getBias());
-
 //        QueueEntry.add(act, new SumUpBias(inducedNeuron.getBias()));
+
+        return !Utils.belowTolerance(inducedNeuron.getBias());
     }
 
     public String toString() {
@@ -51,12 +51,14 @@ public class Linking extends LinkingTask implements ActivationStep {
     }
 
     @Override
-    public void process(Activation act) {
+    public boolean process(Activation act) {
         act.getThought().linkInputRelations(act);
 
         link(act);
 
         act.getModel().linkInputRelations(act, OUTPUT);
+
+        return true;
     }
 
     public String toString() {
@@ -49,8 +49,10 @@ public class Propagate extends LinkingTask implements ActivationStep {
     }
 
     @Override
-    public void process(Activation act) {
+    public boolean process(Activation act) {
         propagate(act);
+
+        return true;
     }
 
     public boolean checkIfQueued() {
@@ -36,10 +36,13 @@ public class PropagateGradientsNet implements ActivationStep {
     }
 
     @Override
-    public void process(Activation act) {
-        act.propagateGradientsFromNetUpdate();
+    public boolean process(Activation act) {
+        if(!act.propagateGradientsFromNetUpdate())
+            return false;
 
         act.markedNetUpdateOccurred = true;
+
+        return true;
     }
 
     public String toString() {
@@ -36,8 +36,8 @@ public class PropagateGradientsSum implements ActivationStep {
     }
 
     @Override
-    public void process(Activation act) {
-        act.propagateGradientsFromSumUpdate();
+    public boolean process(Activation act) {
+        return act.propagateGradientsFromSumUpdate();
     }
 
     public String toString() {
@@ -17,6 +17,7 @@
 package network.aika.neuron.steps.activation;
 
 import network.aika.neuron.activation.Activation;
+import network.aika.neuron.steps.AccumulatingStep;
 import network.aika.neuron.steps.Phase;
 import network.aika.utils.Utils;
 
@@ -26,7 +27,7 @@ import network.aika.utils.Utils;
  *
  * @author Lukas Molzberger
  */
-public class PropagateValueChange implements ActivationStep {
+public class PropagateValueChange implements ActivationStep, AccumulatingStep<Activation, PropagateValueChange> {
 
     private double valueDelta;
 
@@ -44,8 +45,15 @@ public class PropagateValueChange implements ActivationStep {
     }
 
     @Override
-    public void process(Activation act) {
+    public boolean process(Activation act) {
         act.updateOutgoingLinks(valueDelta);
+
+        return true;
+    }
+
+    @Override
+    public void accumulate(PropagateValueChange s) {
+        valueDelta += s.valueDelta;
     }
 
     public String toString() {
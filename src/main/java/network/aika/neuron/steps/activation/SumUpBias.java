@@ -17,6 +17,7 @@
 package network.aika.neuron.steps.activation;
 
 import network.aika.neuron.activation.Activation;
+import network.aika.neuron.steps.AccumulatingStep;
 import network.aika.neuron.steps.Phase;
 import network.aika.utils.Utils;
 
@@ -24,7 +25,7 @@ import network.aika.utils.Utils;
  *
  * @author Lukas Molzberger
  */
-public class SumUpBias implements ActivationStep {
+public class SumUpBias implements ActivationStep, AccumulatingStep<Activation, SumUpBias> {
 
     private double delta;
 
@@ -42,8 +43,13 @@ public class SumUpBias implements ActivationStep {
     }
 
     @Override
-    public void process(Activation act) {
-        act.updateNet(delta);
+    public boolean process(Activation act) {
+        return act.updateNet(delta);
+    }
+
+    @Override
+    public void accumulate(SumUpBias s) {
+        delta += s.delta;
     }
 
     public String toString() {
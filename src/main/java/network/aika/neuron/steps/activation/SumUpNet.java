@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.neuron.steps.activation;
+
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.steps.AccumulatingStep;
+import network.aika.neuron.steps.Phase;
+import network.aika.utils.Utils;
+
+/**
+ * Collects the net deltas of several input links of an activation, if delta coalescing is enabled. See
+ * {@link network.aika.neuron.steps.link.SumUpLink#add}.
+ *
+ * @author Lukas Molzberger
+ */
+public class SumUpNet implements ActivationStep, AccumulatingStep<Activation, SumUpNet> {
+
+    private double delta;
+
+    public SumUpNet(double delta) {
+        this.delta = delta;
+    }
+
+    @Override
+    public Phase getPhase() {
+        return Phase.LINKING;
+    }
+
+    public boolean checkIfQueued() {
+        return false;
+    }
+
+    @Override
+    public boolean process(Activation act) {
+        return act.updateNet(delta);
+    }
+
+    @Override
+    public void accumulate(SumUpNet s) {
+        delta += s.delta;
+    }
+
+    public String toString() {
+        return "Act-Step: Sum up Net (" + Utils.round(delta) + ")";
+    }
+}
@@ -54,8 +54,10 @@ public class TemplateCloseLoop extends TemplateTask implements ActivationStep {
     }
 
     @Override
-    public void process(Activation act) {
+    public boolean process(Activation act) {
         link(act);
+
+        return true;
     }
 
     public boolean checkIfQueued() {
@@ -58,11 +58,13 @@ public class TemplatePropagate extends TemplateTask implements ActivationStep {
     }
 
     @Override
-    public void process(Activation act) {
+    public boolean process(Activation act) {
         if (!act.getNeuron().allowTemplatePropagate(act))
-            return;
+            return true;
 
         propagate(act);
+
+        return true;
     }
 
     public String toString() {
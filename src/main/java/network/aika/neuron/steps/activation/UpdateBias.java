@@ -17,6 +17,7 @@
 package network.aika.neuron.steps.activation;
 
 import network.aika.neuron.activation.Activation;
+import network.aika.neuron.steps.AccumulatingStep;
 import network.aika.neuron.steps.Phase;
 import network.aika.utils.Utils;
 
@@ -24,7 +25,7 @@ import network.aika.utils.Utils;
  *
  * @author Lukas Molzberger
  */
-public class UpdateBias implements ActivationStep {
+public class UpdateBias implements ActivationStep, AccumulatingStep<Activation, UpdateBias> {
 
     public UpdateBias(double biasDelta) {
         this.biasDelta = biasDelta;
@@ -42,8 +43,15 @@ public class UpdateBias implements ActivationStep {
     }
 
     @Override
-    public void process(Activation act) {
+    public boolean process(Activation act) {
         act.getNeuron().updateBias(biasDelta);
+
+        return true;
+    }
+
+    @Override
+    public void accumulate(UpdateBias s) {
+        biasDelta += s.biasDelta;
     }
 
     public String toString() {
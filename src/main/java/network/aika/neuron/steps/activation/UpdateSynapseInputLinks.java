@@ -16,6 +16,7 @@
  */
 package network.aika.neuron.steps.activation;
 
+import network.aika.neuron.NeuronProvider;
 import network.aika.neuron.activation.Activation;
 import network.aika.neuron.steps.Phase;
 
@@ -25,6 +26,8 @@ import network.aika.neuron.steps.Phase;
  * Connecting a synapse to its input neuron is not necessary if the synapse weight is weak. That is the case if the
  * synapse is incapable to completely suppress the activation of this neuron.
  *
+ * The neuron is not saved right away, but marked as dirty and saved once the thought has been processed.
+ *
  * @author Lukas Molzberger
  */
 public class UpdateSynapseInputLinks implements ActivationStep {
@@ -39,9 +42,13 @@ public class UpdateSynapseInputLinks implements ActivationStep {
     }
 
     @Override
-    public void process(Activation act) {
+    public boolean process(Activation act) {
         act.getNeuron().updateSynapseInputLinks();
-        act.getNeuronProvider().save();
+
+        NeuronProvider np = act.getNeuronProvider();
+        np.getModel().markDirty(np);
+
+        return true;
     }
 
     public String toString() {
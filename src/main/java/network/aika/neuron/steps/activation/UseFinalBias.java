@@ -36,12 +36,11 @@ public class UseFinalBias implements ActivationStep {
     }
 
     @Override
-    public void process(Activation act) {
-        act.updateNet(
-                act.getNeuron().getRecurrentBias()
-        );
+    public boolean process(Activation act) {
+        if(!act.updateNet(act.getNeuron().getRecurrentBias()))
+            return false;
 
-        act.updateValue();
+        return act.updateValue();
     }
 
     public String toString() {
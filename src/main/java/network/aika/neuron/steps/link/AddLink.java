@@ -36,12 +36,14 @@ public class AddLink implements LinkStep {
     }
 
     @Override
-    public void process(Link l) {
+    public boolean process(Link l) {
         if(l.getInput() != null)
             l.linkInput();
 
         if(l.getOutput() != null)
             l.linkOutput();
+
+        return true;
     }
 
     public String toString() {
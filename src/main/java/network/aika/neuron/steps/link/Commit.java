@@ -36,12 +36,14 @@ public class Commit implements LinkStep {
     }
 
     @Override
-    public void process(Link l) {
+    public boolean process(Link l) {
         if(l.getOutput().getFired() != Fired.NOT_FIRED)
-            return;
+            return true;
 
         l.unlinkInput();
         l.unlinkOutput();
+
+        return true;
     }
 
     public String toString() {
@@ -36,9 +36,19 @@ public class Counting implements LinkStep {
         return true;
     }
 
+    /**
+     * The synapse belongs to the output neuron, which is also the conflict key of the activation counting step.
+     */
     @Override
-    public void process(Link l) {
+    public Object getConflictKey(Link l) {
+        return l.getOutput().getNeuron();
+    }
+
+    @Override
+    public boolean process(Link l) {
         l.count();
+
+        return true;
     }
 
     public String toString() {
@@ -38,7 +38,7 @@ public class Induction implements LinkStep {
     }
 
     @Override
-    public void process(Link l) {
+    public boolean process(Link l) {
         assert l.getSynapse().isTemplate();
 
         Synapse inducedSynapse = l.getSynapse()
@@ -51,6 +51,8 @@ public class Induction implements LinkStep {
         inducedSynapse.linkOutput();
 
         QueueEntry.add(l, COMMIT);
+
+        return true;
     }
 
     public String toString() {
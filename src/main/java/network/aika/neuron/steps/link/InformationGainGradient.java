@@ -39,8 +39,8 @@ public class InformationGainGradient implements LinkStep {
     }
 
     @Override
-    public void process(Link l) {
-        l.computeInformationGainGradient();
+    public boolean process(Link l) {
+        return l.computeInformationGainGradient();
     }
 
     public String toString() {
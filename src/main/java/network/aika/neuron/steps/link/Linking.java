@@ -46,10 +46,12 @@ public class Linking extends LinkingTask implements LinkStep {
     }
 
     @Override
-    public void process(Link l) {
+    public boolean process(Link l) {
         link(l);
 
         QueueEntry.add(l, COUNTING);
+
+        return true;
     }
 
     public String toString() {
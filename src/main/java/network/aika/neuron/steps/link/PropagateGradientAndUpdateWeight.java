@@ -17,13 +17,14 @@
 package network.aika.neuron.steps.link;
 
 import network.aika.neuron.Synapse;
+import network.aika.neuron.activation.Gradient;
 import network.aika.neuron.activation.Link;
 import network.aika.neuron.activation.QueueEntry;
+import network.aika.neuron.steps.AccumulatingStep;
 import network.aika.neuron.steps.Phase;
-import network.aika.utils.Utils;
 
-import static network.aika.neuron.activation.Activation.INCOMING;
-import static network.aika.neuron.activation.Activation.OWN;
+import java.util.function.Supplier;
+
 import static network.aika.neuron.steps.activation.ActivationStep.UPDATE_SYNAPSE_INPUT_LINKS;
 
 /**
@@ -31,12 +32,32 @@ import static network.aika.neuron.steps.activation.ActivationStep.UPDATE_SYNAPSE
  *
  * @author Lukas Molzberger
  */
-public class PropagateGradientAndUpdateWeight implements LinkStep {
+public class PropagateGradientAndUpdateWeight implements LinkStep, AccumulatingStep<Link, PropagateGradientAndUpdateWeight> {
+
+    private Gradient gradient;
+
+    // the gradient is shared with the steps of the other input links until a delta is merged into it
+    private boolean shared;
 
-    private double[] gradient;
+    /**
+     * @param gradient Copied, since it may be a scratch buffer of the thought.
+     */
+    public PropagateGradientAndUpdateWeight(Gradient gradient) {
+        this(new Gradient(gradient), false);
+    }
 
-    public PropagateGradientAndUpdateWeight(double[] gradient) {
+    private PropagateGradientAndUpdateWeight(Gradient gradient, boolean shared) {
         this.gradient = gradient;
+        this.shared = shared;
+    }
+
+    /**
+     * Creates a separate step for each input link, since a pending step accumulates the deltas of its own link.
+     * The steps share a single copy of the gradient, which is only copied again once a delta is merged.
+     */
+    public static Supplier<LinkStep> perLink(Gradient gradient) {
+        Gradient g = new Gradient(gradient);
+        return () -> new PropagateGradientAndUpdateWeight(g, true);
     }
 
     public boolean checkIfQueued() {
@@ -49,9 +70,9 @@ public class PropagateGradientAndUpdateWeight implements LinkStep {
     }
 
     @Override
-    public void process(Link l) {
+    public boolean process(Link l) {
         if(l.getSynapse().isAllowTraining()) {
-            double g = gradient[OWN] + gradient[INCOMING];
+            double g = gradient.sum();
             double weightDelta = l.getConfig().getLearnRate() * g;
             Synapse s = l.getSynapse();
             boolean oldWeightIsZero = s.isZero();
@@ -65,10 +86,21 @@ public class PropagateGradientAndUpdateWeight implements LinkStep {
             QueueEntry.add(l.getOutput(), UPDATE_SYNAPSE_INPUT_LINKS);
         }
 
-        l.propagateGradient(gradient[OWN]);
+        l.propagateGradient(gradient.getOwn());
+
+        return true;
+    }
+
+    @Override
+    public void accumulate(PropagateGradientAndUpdateWeight s) {
+        if(shared) {
+            gradient = new Gradient(gradient);
+            shared = false;
+        }
+        gradient.add(s.gradient);
     }
 
     public String toString() {
-        return "Link-Step: Propagate Gradient (Own:" + Utils.round(gradient[OWN]) + ", Incoming:" + Utils.round(gradient[INCOMING]) + ")";
+        return "Link-Step: Propagate Gradient (" + gradient + ")";
     }
 }
@@ -36,8 +36,10 @@ public class ShadowFactor implements LinkStep {
     }
 
     @Override
-    public void process(Link l) {
+    public boolean process(Link l) {
     //    l.removeGradientDependencies();
+
+        return true;
     }
 
     public String toString() {
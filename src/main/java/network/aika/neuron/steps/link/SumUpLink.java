@@ -16,10 +16,13 @@
  */
 package network.aika.neuron.steps.link;
 
+import network.aika.Config;
 import network.aika.neuron.activation.Activation;
 import network.aika.neuron.activation.Link;
 import network.aika.neuron.activation.QueueEntry;
+import network.aika.neuron.steps.AccumulatingStep;
 import network.aika.neuron.steps.Phase;
+import network.aika.neuron.steps.activation.SumUpNet;
 import network.aika.utils.Utils;
 
 import static network.aika.neuron.steps.activation.ActivationStep.CHECK_IF_FIRED;
@@ -30,7 +33,7 @@ import static network.aika.neuron.steps.activation.ActivationStep.PROPAGATE_GRAD
  *
  * @author Lukas Molzberger
  */
-public class SumUpLink implements LinkStep {
+public class SumUpLink implements LinkStep, AccumulatingStep<Link, SumUpLink> {
 
     private double delta;
 
@@ -38,6 +41,18 @@ public class SumUpLink implements LinkStep {
         this.delta = delta;
     }
 
+    /**
+     * Queues a net delta of the given link. If delta coalescing is enabled, the delta is accumulated directly
+     * on the output activation, so that the deltas of several input links result in a single net update.
+     */
+    public static void add(Link l, double delta) {
+        Config c = l.getConfig();
+        if(c != null && c.isCoalesceDeltaSteps())
+            QueueEntry.add(l.getOutput(), new SumUpNet(delta));
+        else
+            QueueEntry.add(l, new SumUpLink(delta));
+    }
+
     @Override
     public Phase getPhase() {
         return Phase.LINKING;
@@ -48,14 +63,22 @@ public class SumUpLink implements LinkStep {
     }
 
     @Override
-    public void process(Link l) {
-        l.sumUpLink(delta);
+    public boolean process(Link l) {
+        if(!l.sumUpLink(delta))
+            return false;
 
         Activation oAct = l.getOutput();
 
         if(!oAct.markedNetUpdateOccurred)
             QueueEntry.add(oAct, PROPAGATE_GRADIENTS_NET);
         QueueEntry.add(oAct, CHECK_IF_FIRED);
+
+        return true;
+    }
+
+    @Override
+    public void accumulate(SumUpLink s) {
+        delta += s.delta;
     }
 
     public String toString() {
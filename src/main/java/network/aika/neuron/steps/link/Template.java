@@ -40,8 +40,10 @@ public class Template extends TemplateTask implements LinkStep {
     }
 
     @Override
-    public void process(Link l) {
+    public boolean process(Link l) {
         link(l);
+
+        return true;
     }
 
     public boolean checkIfQueued() {
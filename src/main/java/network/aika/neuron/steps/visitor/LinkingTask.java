@@ -25,6 +25,7 @@ import network.aika.neuron.activation.direction.Direction;
 import network.aika.neuron.activation.visitor.ActVisitor;
 import network.aika.neuron.steps.VisitorStep;
 
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static network.aika.neuron.activation.direction.Direction.OUTPUT;
@@ -45,6 +46,11 @@ public abstract class LinkingTask extends VisitorStep {
          return dir.getSynapses(act.getNeuron(), invertRecurrent);
     }
 
+    @Override
+    public void forEachTargetSynapse(Activation act, Direction dir, boolean invertRecurrent, Consumer<? super Synapse> c) {
+        dir.forEachSynapse(act.getNeuron(), invertRecurrent, c);
+    }
+
     @Override
     public boolean checkPropagate(Activation act, Synapse targetSynapse) {
         return true;
@@ -69,6 +75,7 @@ public abstract class LinkingTask extends VisitorStep {
         if (!iAct.isActive(false))
             return;
 
+        Synapse targetSynapse = v.getTargetSynapse();
         if(!(v.getCurrentDir() == OUTPUT || targetSynapse.isRecurrent()))
             return;
 
@@ -26,7 +26,8 @@ import network.aika.neuron.activation.visitor.ActVisitor;
 import network.aika.neuron.steps.VisitorStep;
 import network.aika.neuron.steps.link.LinkStep;
 
-import java.util.Set;
+import java.util.Arrays;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static network.aika.neuron.activation.direction.Direction.OUTPUT;
@@ -44,11 +45,23 @@ public abstract class TemplateTask extends VisitorStep {
 
     @Override
     public Stream<? extends Synapse> getTargetSynapses(Activation act, Direction dir, boolean invertRecurrent) {
-        return act.getNeuron()
-                .getTemplateGroup().stream()
-                .flatMap(tn ->
-                        dir.getSynapses(tn, invertRecurrent)
-                );
+        Synapse[] targetSynapses = act.getNeuron()
+                .getTemplate()
+                .getTemplateInfo()
+                .getTargetSynapses(dir, invertRecurrent);
+
+        return Arrays.stream(targetSynapses);
+    }
+
+    @Override
+    public void forEachTargetSynapse(Activation act, Direction dir, boolean invertRecurrent, Consumer<? super Synapse> c) {
+        Synapse[] targetSynapses = act.getNeuron()
+                .getTemplate()
+                .getTemplateInfo()
+                .getTargetSynapses(dir, invertRecurrent);
+
+        for(Synapse ts : targetSynapses)
+            c.accept(ts);
     }
 
     @Override
@@ -58,9 +71,9 @@ public abstract class TemplateTask extends VisitorStep {
 
     @Override
     protected boolean opposingNeuronMatches(Neuron<?> currentN, Neuron<?> targetN) {
-        return currentN.getTemplateGroup()
-                .stream()
-                .anyMatch(tn -> tn.getId() == targetN.getId());
+        return currentN.getTemplate()
+                .getTemplateInfo()
+                .isInTemplateGroup(targetN);
     }
 
     @Override
@@ -79,6 +92,7 @@ public abstract class TemplateTask extends VisitorStep {
         if(oAct.getNeuron().isInputNeuron())
             return;
 
+        Synapse targetSynapse = v.getTargetSynapse();
         if(v.getCurrentDir() != OUTPUT && !targetSynapse.isRecurrent())
             return;
 
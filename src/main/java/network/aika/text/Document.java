@@ -31,6 +31,7 @@ import network.aika.neuron.activation.Reference;
 public class Document extends Thought {
 
     private final StringBuilder content;
+    private int contentOffset;
 
     public Document(String content) {
         super();
@@ -62,7 +63,7 @@ public class Document extends Thought {
     }
 
     public char charAt(int i) {
-        return content.charAt(i);
+        return content.charAt(i - contentOffset);
     }
 
     public String getContent() {
@@ -70,14 +71,27 @@ public class Document extends Thought {
     }
 
     public int length() {
-        return content.length();
+        return contentOffset + content.length();
+    }
+
+    /**
+     * Discards the text before the given position. The positions of the text references stay absolute, but
+     * the discarded text segments can no longer be retrieved.
+     */
+    protected void discardContent(int pos) {
+        pos = Math.min(pos, length());
+        if(pos <= contentOffset)
+            return;
+
+        content.delete(0, pos - contentOffset);
+        contentOffset = pos;
     }
 
     public String getTextSegment(Integer begin, Integer end) {
         if(begin != null && end != null) {
             return content.substring(
-                    Math.max(0, Math.min(begin, length())),
-                    Math.max(0, Math.min(end, length()))
+                    Math.max(contentOffset, Math.min(begin, length())) - contentOffset,
+                    Math.max(contentOffset, Math.min(end, length())) - contentOffset
             );
         } else {
             return "";
@@ -111,6 +125,10 @@ public class Document extends Thought {
 
     @Deprecated
     public Activation processToken(TextModel m, TextReference lastRef, int begin, int end, String tokenLabel) {
+        return addTokenInput(m, lastRef, begin, end, tokenLabel);
+    }
+
+    protected Activation addTokenInput(TextModel m, TextReference lastRef, int begin, int end, String tokenLabel) {
         TextReference ref = new TextReference(this, begin, end);
         Neuron tokenN = m.lookupToken(tokenLabel);
         Activation tokenPatternAct = addInput(tokenN, ref);
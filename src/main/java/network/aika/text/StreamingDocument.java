@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.text;
+
+import network.aika.Model;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.activation.Element;
+import network.aika.neuron.activation.Link;
+import network.aika.neuron.activation.QueueEntry;
+import network.aika.neuron.activation.Reference;
+import network.aika.neuron.steps.Phase;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The {@code StreamingDocument} accepts its tokens incrementally and only keeps a bounded window of the most
+ * recent text in memory. After each token the queue is processed up to a watermark, which lies the window size
+ * behind the end of the text. The entries of the linking phases are always processed right away, while the
+ * entries of the later phases are only processed once the text reference of their activation ends before the
+ * watermark. Afterwards these settled activations are retired, together with their links and the discarded part
+ * of the text.
+ *
+ * The retired activations have already been counted at that point. Since the positions of the text references
+ * stay absolute, the sample spaces of the neurons and synapses keep seeing the same positions as for a regular
+ * document. The total length of the text, including the retired part, is added to the model once the document
+ * is closed by calling {@link #process(Model)}.
+ *
+ * The range of positions of a thought is reserved from the model when its first activation is registered. At
+ * that point a streaming document only knows its first token, so it should not be processed concurrently with
+ * other documents against the same model.
+ *
+ * @author Lukas Molzberger
+ */
+public class StreamingDocument extends Document {
+
+    private final int windowSize;
+
+    private final ArrayDeque<TextReference> tokens = new ArrayDeque<>();
+    private TextReference lastRef;
+
+    private long numberOfRetiredActivations;
+
+    /**
+     * @param windowSize The number of characters before the end of the text whose activations are retained.
+     */
+    public StreamingDocument(int windowSize) {
+        super(null);
+        this.windowSize = windowSize;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public long getNumberOfRetiredActivations() {
+        return numberOfRetiredActivations;
+    }
+
+    /**
+     * Appends the token to the text, links it to the previous token and processes the resulting activations.
+     */
+    public Activation addToken(TextModel m, String tokenLabel) {
+        int begin = length();
+        int end = begin + tokenLabel.length();
+        append(tokenLabel);
+        append(" ");
+
+        Activation tokenAct = addTokenInput(m, lastRef, begin, end, tokenLabel);
+        lastRef = tokenAct.getReference();
+        tokens.addLast(lastRef);
+
+        processWindow();
+
+        return tokenAct;
+    }
+
+    /**
+     * Processes the queue up to the watermark and retires everything that ends before it.
+     */
+    public void processWindow() {
+        int watermark = length() - windowSize;
+
+        processQueue(qe -> isReady(qe, watermark));
+
+        if(watermark <= 0)
+            return;
+
+        retireActivations(watermark);
+        retireTokens(watermark);
+        discardContent(watermark);
+    }
+
+    private void retireActivations(int watermark) {
+        List<Activation> retired = getActivations()
+                .stream()
+                .filter(act -> isBefore(act.getReference(), watermark))
+                .collect(Collectors.toList());
+
+        retired.forEach(Activation::retire);
+        numberOfRetiredActivations += retired.size();
+    }
+
+    private void retireTokens(int watermark) {
+        while(!tokens.isEmpty() && isBefore(tokens.peekFirst(), watermark)) {
+            TextReference ref = tokens.pollFirst();
+            ref.nextTokenBAct = null;
+            ref.nextTokenIAct = null;
+
+            if(ref.getNext() != null)
+                ref.getNext().setPrevious(null);
+        }
+    }
+
+    private static boolean isReady(QueueEntry qe, int watermark) {
+        if(qe.getStep().getPhase().compareTo(Phase.LINKING) <= 0)
+            return true;
+
+        Element e = qe.getElement();
+        Activation act = e instanceof Link ? ((Link) e).getOutput() : (Activation) e;
+        return isBefore(act.getReference(), watermark);
+    }
+
+    private static boolean isBefore(Reference ref, int watermark) {
+        return ref != null && ref.getEnd() <= watermark;
+    }
+}
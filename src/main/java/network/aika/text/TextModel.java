@@ -120,7 +120,7 @@ public class TextModel extends Model {
                 .anyMatch(s -> prevTokenInhib.getId().equals(s.getOutput().getId()));
     }
 
-    public PatternNeuron lookupToken(String tokenLabel) {
+    public synchronized PatternNeuron lookupToken(String tokenLabel) {
         Neuron inProv = getNeuron(tokenLabel);
         if(inProv != null) {
             return (PatternNeuron) inProv;
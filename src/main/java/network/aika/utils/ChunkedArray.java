@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.utils;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Growable array indexed by small non-negative ids, such as the activation ids of a thought. The elements
+ * are stored in fixed size chunks, so that growing the array only copies the chunk directory and never the
+ * elements themselves. Chunks that run empty are released again. Iterating over the values yields them in
+ * the order of their ids.
+ *
+ * @author Lukas Molzberger
+ */
+public class ChunkedArray<V> {
+
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private Object[][] chunks = new Object[1][];
+    private int[] chunkSizes = new int[1];
+
+    /**
+     * All chunks below this index have been released.
+     */
+    private int firstChunk;
+
+    private int size;
+
+    private final Collection<V> values = new AbstractCollection<>() {
+        @Override
+        public Iterator<V> iterator() {
+            return new ValueIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    };
+
+    public V get(int id) {
+        int c = id >>> CHUNK_BITS;
+        if(c >= chunks.length || chunks[c] == null)
+            return null;
+
+        return (V) chunks[c][id & (CHUNK_SIZE - 1)];
+    }
+
+    public V put(int id, V value) {
+        Objects.requireNonNull(value);
+
+        int c = id >>> CHUNK_BITS;
+        if(c >= chunks.length) {
+            int newLength = Math.max(c + 1, 2 * chunks.length);
+            chunks = Arrays.copyOf(chunks, newLength);
+            chunkSizes = Arrays.copyOf(chunkSizes, newLength);
+        }
+
+        Object[] chunk = chunks[c];
+        if(chunk == null) {
+            chunk = new Object[CHUNK_SIZE];
+            chunks[c] = chunk;
+            firstChunk = Math.min(firstChunk, c);
+        }
+
+        int i = id & (CHUNK_SIZE - 1);
+        V oldValue = (V) chunk[i];
+        chunk[i] = value;
+
+        if(oldValue == null) {
+            chunkSizes[c]++;
+            size++;
+        }
+        return oldValue;
+    }
+
+    public V remove(int id) {
+        int c = id >>> CHUNK_BITS;
+        if(c >= chunks.length || chunks[c] == null)
+            return null;
+
+        int i = id & (CHUNK_SIZE - 1);
+        V oldValue = (V) chunks[c][i];
+        if(oldValue == null)
+            return null;
+
+        chunks[c][i] = null;
+        size--;
+        if(--chunkSizes[c] == 0) {
+            chunks[c] = null;
+            while(firstChunk < chunks.length && chunks[firstChunk] == null)
+                firstChunk++;
+        }
+
+        return oldValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns a live view of the values in id order.
+     */
+    public Collection<V> values() {
+        return values;
+    }
+
+
+    private class ValueIterator implements Iterator<V> {
+        private int id;
+        private V next;
+
+        private ValueIterator() {
+            id = (firstChunk << CHUNK_BITS) - 1;
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            id++;
+            while(next == null) {
+                int c = id >>> CHUNK_BITS;
+                if(c >= chunks.length)
+                    return;
+
+                Object[] chunk = chunks[c];
+                if(chunk == null) {
+                    id = (c + 1) << CHUNK_BITS;
+                    continue;
+                }
+
+                next = (V) chunk[id & (CHUNK_SIZE - 1)];
+                if(next == null)
+                    id++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public V next() {
+            if(next == null)
+                throw new NoSuchElementException();
+
+            V v = next;
+            advance();
+            return v;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.utils;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Thread safe map with primitive long keys, which keeps its entries in two parallel arrays sorted by key.
+ * Readers never lock: they work on an immutable snapshot of the arrays and the number of valid entries.
+ * Writers synchronize on the map. Since keys such as neuron ids are mostly inserted in ascending order,
+ * appending an entry writes into the spare capacity of the current arrays, which is invisible to the
+ * readers of older snapshots. Only insertions in the middle, replacements and removals copy the arrays.
+ * Null values are not supported.
+ *
+ * @author Lukas Molzberger
+ */
+public class ConcurrentSortedLongMap<V> {
+
+    private static final Snapshot EMPTY = new Snapshot(new long[0], new Object[0], 0);
+
+    private volatile Snapshot snapshot = EMPTY;
+
+    private final Collection<V> values = new AbstractCollection<>() {
+        @Override
+        public Iterator<V> iterator() {
+            return new ValueIterator<>(snapshot);
+        }
+
+        @Override
+        public int size() {
+            return snapshot.size;
+        }
+    };
+
+    public V get(long key) {
+        Snapshot s = snapshot;
+        int i = s.indexOf(key);
+        return i >= 0 ? (V) s.values[i] : null;
+    }
+
+    public boolean containsKey(long key) {
+        return snapshot.indexOf(key) >= 0;
+    }
+
+    public synchronized V put(long key, V value) {
+        Objects.requireNonNull(value);
+
+        Snapshot s = snapshot;
+        int i = s.indexOf(key);
+        if(i >= 0) {
+            V oldValue = (V) s.values[i];
+            if(oldValue != value) {
+                Object[] newValues = Arrays.copyOf(s.values, s.values.length);
+                newValues[i] = value;
+                snapshot = new Snapshot(s.keys, newValues, s.size);
+            }
+            return oldValue;
+        }
+
+        i = -(i + 1);
+        if(i == s.size && s.size < s.keys.length) {
+            s.keys[i] = key;
+            s.values[i] = value;
+            snapshot = new Snapshot(s.keys, s.values, s.size + 1);
+            return null;
+        }
+
+        int capacity = s.size < s.keys.length ?
+                s.keys.length :
+                Math.max(2, s.size + (s.size >> 1));
+
+        long[] newKeys = new long[capacity];
+        Object[] newValues = new Object[capacity];
+        System.arraycopy(s.keys, 0, newKeys, 0, i);
+        System.arraycopy(s.values, 0, newValues, 0, i);
+        System.arraycopy(s.keys, i, newKeys, i + 1, s.size - i);
+        System.arraycopy(s.values, i, newValues, i + 1, s.size - i);
+        newKeys[i] = key;
+        newValues[i] = value;
+
+        snapshot = new Snapshot(newKeys, newValues, s.size + 1);
+        return null;
+    }
+
+    public synchronized V remove(long key) {
+        Snapshot s = snapshot;
+        int i = s.indexOf(key);
+        if(i < 0)
+            return null;
+
+        V oldValue = (V) s.values[i];
+        if(s.size == 1) {
+            snapshot = EMPTY;
+            return oldValue;
+        }
+
+        long[] newKeys = new long[s.keys.length];
+        Object[] newValues = new Object[s.values.length];
+        System.arraycopy(s.keys, 0, newKeys, 0, i);
+        System.arraycopy(s.values, 0, newValues, 0, i);
+        System.arraycopy(s.keys, i + 1, newKeys, i, s.size - i - 1);
+        System.arraycopy(s.values, i + 1, newValues, i, s.size - i - 1);
+
+        snapshot = new Snapshot(newKeys, newValues, s.size - 1);
+        return oldValue;
+    }
+
+    public int size() {
+        return snapshot.size;
+    }
+
+    public boolean isEmpty() {
+        return snapshot.size == 0;
+    }
+
+    /**
+     * Applies the consumer to the values in key order. Entries that are added or removed concurrently,
+     * or by the consumer itself, do not affect the iteration.
+     */
+    public void forEach(Consumer<? super V> c) {
+        Snapshot s = snapshot;
+        for(int i = 0; i < s.size; i++)
+            c.accept((V) s.values[i]);
+    }
+
+    /**
+     * Returns a view of the values in key order. Each iterator works on the entries present at its creation.
+     */
+    public Collection<V> values() {
+        return values;
+    }
+
+    public Stream<V> stream() {
+        Snapshot s = snapshot;
+        return Arrays.stream(s.values, 0, s.size)
+                .map(v -> (V) v);
+    }
+
+
+    private static class Snapshot {
+        private final long[] keys;
+        private final Object[] values;
+        private final int size;
+
+        private Snapshot(long[] keys, Object[] values, int size) {
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+        }
+
+        private int indexOf(long key) {
+            return Arrays.binarySearch(keys, 0, size, key);
+        }
+    }
+
+    private static class ValueIterator<V> implements Iterator<V> {
+        private final Snapshot snapshot;
+        private int i;
+
+        private ValueIterator(Snapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return i < snapshot.size;
+        }
+
+        @Override
+        public V next() {
+            if(!hasNext())
+                throw new NoSuchElementException();
+
+            return (V) snapshot.values[i++];
+        }
+    }
+}
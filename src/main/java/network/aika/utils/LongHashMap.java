@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.utils;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Hash map with primitive long keys, which avoids boxing the keys. Collisions are resolved by linear
+ * probing and removed entries are compacted by shifting the following entries of the same cluster back.
+ * Null values are not supported.
+ *
+ * @author Lukas Molzberger
+ */
+public class LongHashMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    public LongHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongHashMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while(capacity < 2 * expectedSize)
+            capacity <<= 1;
+
+        keys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    public V get(long key) {
+        int mask = keys.length - 1;
+        for(int i = index(key, mask); values[i] != null; i = (i + 1) & mask) {
+            if(keys[i] == key)
+                return (V) values[i];
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public V put(long key, V value) {
+        Objects.requireNonNull(value);
+
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        for(; values[i] != null; i = (i + 1) & mask) {
+            if(keys[i] == key) {
+                V oldValue = (V) values[i];
+                values[i] = value;
+                return oldValue;
+            }
+        }
+
+        keys[i] = key;
+        values[i] = value;
+        if(++size > keys.length >> 1)
+            resize(keys.length << 1);
+
+        return null;
+    }
+
+    public V computeIfAbsent(long key, LongFunction<V> f) {
+        V v = get(key);
+        if(v == null) {
+            v = f.apply(key);
+            put(key, v);
+        }
+        return v;
+    }
+
+    public V remove(long key) {
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        for(; values[i] != null; i = (i + 1) & mask) {
+            if(keys[i] == key)
+                break;
+        }
+        if(values[i] == null)
+            return null;
+
+        V oldValue = (V) values[i];
+        values[i] = null;
+        size--;
+
+        for(int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            int h = index(keys[j], mask);
+            if(((j - h) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                values[j] = null;
+                i = j;
+            }
+        }
+        return oldValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    public Stream<V> values() {
+        return Arrays.stream(values)
+                .filter(v -> v != null)
+                .map(v -> (V) v);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        keys = new long[capacity];
+        values = new Object[capacity];
+        size = 0;
+
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldValues[i] != null)
+                put(oldKeys[i], (V) oldValues[i]);
+        }
+    }
+
+    private static int index(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -16,82 +16,63 @@
  */
 package network.aika.utils;
 
+import java.util.concurrent.locks.StampedLock;
+
 /**
+ * Read write lock on top of a {@link StampedLock}. Readers can either take the read lock or, for short
+ * lookups, read optimistically without any synchronization and validate the stamp afterwards. The write
+ * lock excludes other writers and readers and may be reentered by the thread holding it.
  *
  * @author Lukas Molzberger
  */
 public class ReadWriteLock {
 
-    private int readers = 0;
-    private int writers = 0;
-    private int writeRequests = 0;
-    private long writerThreadId = -1;
-    private int waitForReadLock = 0;
-    private int waitForWriteLock = 0;
+    private final StampedLock lock = new StampedLock();
 
-    private Object writeLock = new Object();
+    private volatile Thread writer;
+    private int writeHolds;
+    private long writeStamp;
 
     public void acquireWriteLock() {
-        try {
-            synchronized (this) {
-                writeRequests++;
-                while (readers > 0) {
-                    wait();
-                }
-            }
-
-            long tid = Thread.currentThread().getId();
-            synchronized (writeLock) {
-                if(writerThreadId != tid) {
-                    waitForWriteLock++;
-                    while (writers > 0) {
-                        writeLock.wait();
-                    }
-                    waitForWriteLock--;
-                    writerThreadId = tid;
-                }
-                writers++;
-            }
-        } catch(InterruptedException e) {
-            e.printStackTrace();
+        Thread t = Thread.currentThread();
+        if(writer == t) {
+            writeHolds++;
+            return;
         }
-    }
 
-    public synchronized void acquireReadLock() {
-        try {
-            waitForReadLock++;
-            while (writeRequests > 0) {
-                wait();
-            }
-            waitForReadLock--;
-            readers++;
-        } catch(InterruptedException e) {
-            e.printStackTrace();
-        }
+        writeStamp = lock.writeLock();
+        writer = t;
+        writeHolds = 1;
     }
 
     public void releaseWriteLock() {
-        synchronized (writeLock) {
-            writers--;
-            if(writers == 0) {
-                writerThreadId = -1;
-                if(waitForWriteLock > 0) {
-                    writeLock.notify();
-                }
-            }
-        }
-        synchronized(this) {
-            writeRequests--;
-            if(writeRequests == 0 && waitForReadLock > 0) {
-                notifyAll();
-            }
-        }
+        if(--writeHolds > 0)
+            return;
+
+        writer = null;
+        lock.unlockWrite(writeStamp);
     }
 
-    public synchronized void releaseReadLock() {
-        readers--;
-        if(writeRequests > 0 && readers == 0) {
-            notifyAll();
-        }
+    public void acquireReadLock() {
+        lock.readLock();
+    }
+
+    public void releaseReadLock() {
+        lock.tryUnlockRead();
+    }
+
+    /**
+     * Returns a stamp for an optimistic read, or zero if the write lock is currently held.
+     */
+    public long tryOptimisticRead() {
+        return lock.tryOptimisticRead();
+    }
+
+    /**
+     * Returns true if no write lock has been acquired since the given stamp was issued. A read that fails
+     * the validation has to be repeated under the read lock.
+     */
+    public boolean validate(long stamp) {
+        return lock.validate(stamp);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika.utils;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Compact map with primitive long keys, which keeps its entries in two parallel arrays sorted by key. Lookups
+ * are binary searches and insertions shift the following entries, which is cheap for the small maps that are
+ * typical for the links of an activation. In contrast to a hash map, the values are iterated in key order and
+ * key ranges can be queried. Null values are not supported.
+ *
+ * @author Lukas Molzberger
+ */
+public class SortedLongMap<V> {
+
+    private static final long[] EMPTY_KEYS = new long[0];
+    private static final Object[] EMPTY_VALUES = new Object[0];
+
+    private long[] keys = EMPTY_KEYS;
+    private Object[] values = EMPTY_VALUES;
+    private int size;
+    private int modCount;
+
+    public V get(long key) {
+        int i = indexOf(key);
+        return i >= 0 ? (V) values[i] : null;
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    public V put(long key, V value) {
+        Objects.requireNonNull(value);
+
+        int i = indexOf(key);
+        if(i >= 0) {
+            V oldValue = (V) values[i];
+            values[i] = value;
+            return oldValue;
+        }
+
+        i = -(i + 1);
+        if(size == keys.length) {
+            int capacity = Math.max(2, size + (size >> 1));
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(values, i, values, i + 1, size - i);
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        modCount++;
+
+        return null;
+    }
+
+    public V remove(long key) {
+        int i = indexOf(key);
+        if(i < 0)
+            return null;
+
+        V oldValue = (V) values[i];
+        removeAt(i);
+        return oldValue;
+    }
+
+    /**
+     * Removes the entry only if the key is currently mapped to the given value.
+     */
+    public boolean remove(long key, V value) {
+        int i = indexOf(key);
+        if(i < 0 || values[i] != value)
+            return false;
+
+        removeAt(i);
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Returns a live view of the values in key order. The view is not cached, in order to keep the map
+     * itself small.
+     */
+    public Collection<V> values() {
+        return new Values(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns a live view of the values whose keys lie within the given bounds, both inclusive.
+     */
+    public Collection<V> values(long fromKey, long toKey) {
+        return new Values(fromKey, toKey);
+    }
+
+    public boolean containsRange(long fromKey, long toKey) {
+        int i = lowerBound(fromKey);
+        return i < size && keys[i] <= toKey;
+    }
+
+    private void removeAt(int i) {
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(values, i + 1, values, i, size - i - 1);
+        values[--size] = null;
+        modCount++;
+    }
+
+    private int indexOf(long key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    /**
+     * Returns the index of the first entry whose key is greater than or equal to the given key.
+     */
+    private int lowerBound(long key) {
+        int i = indexOf(key);
+        return i >= 0 ? i : -(i + 1);
+    }
+
+    /**
+     * Returns the index of the first entry whose key is greater than the given key.
+     */
+    private int upperBound(long key) {
+        int i = indexOf(key);
+        return i >= 0 ? i + 1 : -(i + 1);
+    }
+
+
+    private class Values extends AbstractCollection<V> {
+        private final long fromKey;
+        private final long toKey;
+
+        private Values(long fromKey, long toKey) {
+            this.fromKey = fromKey;
+            this.toKey = toKey;
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new Iterator<>() {
+                private int i = lowerBound(fromKey);
+                private final int expectedModCount = modCount;
+
+                @Override
+                public boolean hasNext() {
+                    return i < size && keys[i] <= toKey;
+                }
+
+                @Override
+                public V next() {
+                    if(modCount != expectedModCount)
+                        throw new ConcurrentModificationException();
+                    if(!hasNext())
+                        throw new NoSuchElementException();
+
+                    return (V) values[i++];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return Math.max(0, upperBound(toKey) - lowerBound(fromKey));
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !containsRange(fromKey, toKey);
+        }
+    }
+}
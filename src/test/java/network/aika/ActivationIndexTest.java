@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.callbacks.EventListener;
+import network.aika.neuron.Neuron;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.activation.Link;
+import network.aika.neuron.activation.QueueEntry;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import network.aika.text.TextReference;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the per neuron activation index of a thought stays consistent with its activations while
+ * the thought is processed, including the activations that are cloned or assigned to induced neurons.
+ *
+ * @author Lukas Molzberger
+ */
+public class ActivationIndexTest {
+
+    private static final String[] PHRASES = new String[] {
+            "der Hund bellt",
+            "die Katze schläft",
+            "der Hund schläft",
+            "der Hund frisst die Wurst"
+    };
+
+    @Test
+    public void testIndexIsCurrent() {
+        TextModel m = new TextModel();
+        m.init();
+
+        for(int round = 0; round < 3; round++) {
+            for (String phrase : PHRASES) {
+                Document doc = new Document(phrase);
+                doc.setConfig(
+                        Util.getTestConfig()
+                                .setAlpha(0.99)
+                                .setLearnRate(-0.1)
+                                .setEnableTraining(round > 0)
+                );
+                doc.addEventListener(new EventListener() {
+                    @Override
+                    public void onActivationCreationEvent(Activation act, Activation originAct) {
+                    }
+
+                    @Override
+                    public void onLinkCreationEvent(Link l) {
+                    }
+
+                    @Override
+                    public void beforeProcessedEvent(QueueEntry qe) {
+                    }
+
+                    @Override
+                    public void afterProcessedEvent(QueueEntry qe) {
+                        checkIndex(doc);
+                    }
+                });
+
+                int i = 0;
+                TextReference lastRef = null;
+                for (String t : phrase.split(" ")) {
+                    int j = i + t.length();
+                    lastRef = doc.processToken(m, lastRef, i, j, t).getReference();
+                    i = j + 1;
+                }
+
+                doc.process(m);
+                checkIndex(doc);
+            }
+        }
+    }
+
+    private void checkIndex(Document doc) {
+        Set<Neuron<?>> neurons = doc.getActivations()
+                .stream()
+                .map(Activation::getNeuron)
+                .collect(Collectors.toSet());
+
+        for(Neuron<?> n: neurons) {
+            Set<Activation> expected = doc.getActivations()
+                    .stream()
+                    .filter(act -> act.getNeuron() == n)
+                    .filter(act -> act.isActive(false))
+                    .collect(Collectors.toCollection(TreeSet::new));
+
+            assertEquals(expected, new TreeSet<>(doc.getActivations(n)));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.utils.BetaQuantile;
+import org.apache.commons.math3.distribution.BetaDistribution;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class BetaQuantileTest {
+
+    @Test
+    public void testAgainstBetaDistribution() {
+        Random rnd = new Random(42);
+        BetaQuantile q = new BetaQuantile(4);
+
+        for(int round = 0; round < 2000; round++) {
+            int slot = rnd.nextInt(4);
+            double alpha = 1 + rnd.nextInt(20);
+            double beta = alpha + rnd.nextInt(50) + (rnd.nextBoolean() ? 0.5 : 0.0);
+            double p = rnd.nextBoolean() ? 0.95 : 0.9;
+
+            double expected = new BetaDistribution(alpha, beta)
+                    .inverseCumulativeProbability(p);
+
+            assertEquals(expected, q.get(slot, alpha, beta, p));
+            assertEquals(expected, BetaQuantile.inverseCumulativeProbability(alpha, beta, p));
+        }
+    }
+}
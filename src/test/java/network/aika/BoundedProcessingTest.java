@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.neuron.Neuron;
+import network.aika.neuron.NeuronProvider;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import network.aika.text.TextReference;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Comparator;
+
+import static network.aika.ProcessingStatus.COMPLETE;
+import static network.aika.ProcessingStatus.INTERRUPTED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Checks that resuming an interrupted thought yields the same result as processing it in one go.
+ *
+ * @author Lukas Molzberger
+ */
+public class BoundedProcessingTest {
+
+    private static final String[] PHRASES = new String[] {
+            "der Hund bellt",
+            "die Katze schläft",
+            "der Hund schläft",
+            "der Hund frisst die Wurst"
+    };
+
+    @Test
+    public void testResumeWithEntryBudget() {
+        assertEquals(run(-1), run(7));
+    }
+
+    @Test
+    public void testDeadline() {
+        TextModel m = new TextModel();
+        m.init();
+
+        Document doc = createDocument(m, PHRASES[0], false);
+
+        assertEquals(INTERRUPTED, doc.process(m, Instant.now().minusSeconds(1)));
+        assertFalse(doc.getQueue().isEmpty());
+        assertEquals(0, m.getN());
+
+        assertEquals(COMPLETE, doc.process(m, Instant.MAX));
+        assertEquals(doc.length(), m.getN());
+    }
+
+    private String run(int maxEntries) {
+        StringBuilder sb = new StringBuilder();
+
+        TextModel m = new TextModel();
+        m.init();
+
+        for(int round = 0; round < 3; round++) {
+            for (String phrase : PHRASES) {
+                Document doc = createDocument(m, phrase, round > 0);
+
+                if(maxEntries < 0) {
+                    doc.process(m);
+                } else {
+                    int calls = 1;
+                    while(doc.process(m, maxEntries) == INTERRUPTED)
+                        calls++;
+                    assertFalse(calls == 1);
+                }
+
+                sb.append(doc + "\n");
+            }
+        }
+
+        m.getActiveNeurons()
+                .stream()
+                .map(NeuronProvider::getNeuron)
+                .sorted(Comparator.comparing(Neuron::getId))
+                .forEach(n -> sb.append(n.toDetailedString() + " f:" + n.getFrequency() + " " + n.getSampleSpace() + "\n"));
+
+        sb.append("N:" + m.getN());
+        return sb.toString();
+    }
+
+    private Document createDocument(TextModel m, String phrase, boolean training) {
+        Document doc = new Document(phrase);
+        doc.setConfig(
+                Util.getTestConfig()
+                        .setAlpha(0.99)
+                        .setLearnRate(-0.1)
+                        .setEnableTraining(training)
+        );
+
+        int i = 0;
+        TextReference lastRef = null;
+        for (String t : phrase.split(" ")) {
+            int j = i + t.length();
+            lastRef = doc.processToken(m, lastRef, i, j, t).getReference();
+            i = j + 1;
+        }
+        return doc;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.neuron.Synapse;
+import network.aika.neuron.Templates;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.activation.Link;
+import network.aika.neuron.excitatory.BindingNeuron;
+import network.aika.neuron.excitatory.PatternNeuron;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class BranchLimitTest {
+
+    @Test
+    public void testWeakestBranchIsPruned() {
+        TextModel m = new TextModel();
+        m.init();
+        Templates t = m.getTemplates();
+
+        PatternNeuron in = t.INPUT_PATTERN_TEMPLATE.instantiateTemplate(true);
+        in.setInputNeuron(true);
+        BindingNeuron bn = t.SAME_BINDING_TEMPLATE.instantiateTemplate(true);
+
+        Synapse s = t.PRIMARY_INPUT_SYNAPSE_TEMPLATE.instantiateTemplate(in, bn);
+        s.linkInput();
+        s.linkOutput();
+        s.addWeight(10.0);
+
+        Document doc = new Document("test");
+        doc.setConfig(
+                new Config()
+                        .setMaxBranches(2)
+        );
+
+        Activation inAct = doc.createActivation(in);
+        Activation act = doc.createActivation(bn);
+        Link l = new Link(s, inAct, act, false);
+        l.linkInput();
+        l.linkOutput();
+
+        Activation b1 = act.createBranch(null);
+        Activation b2 = act.createBranch(null);
+        assertNotNull(b1);
+        assertNotNull(b2);
+
+        // Equally strong branches: the new one is not admitted.
+        assertNull(act.createBranch(null));
+        assertEquals(4, doc.getNumberOfActivations());
+
+        b1.updateNet(-5.0);
+        Activation b3 = act.createBranch(null);
+
+        assertNotNull(b3);
+        assertTrue(b1.isRetired());
+        assertNull(doc.getActivation(b1.getId()));
+        assertEquals(4, doc.getNumberOfActivations());
+        assertTrue(
+                doc.getQueue()
+                        .stream()
+                        .noneMatch(qe -> qe.getElement() == b1)
+        );
+
+        doc.process(m);
+
+        assertTrue(inAct.getOutputLinks().noneMatch(ol -> ol.getOutput() == b1));
+        assertTrue(inAct.getOutputLinks().anyMatch(ol -> ol.getOutput() == b3));
+    }
+
+    @Test
+    public void testPropagatedBranchIsKept() {
+        TextModel m = new TextModel();
+        m.init();
+        Templates t = m.getTemplates();
+
+        PatternNeuron in = t.INPUT_PATTERN_TEMPLATE.instantiateTemplate(true);
+        in.setInputNeuron(true);
+        BindingNeuron bn = t.SAME_BINDING_TEMPLATE.instantiateTemplate(true);
+        BindingNeuron outN = t.SAME_BINDING_TEMPLATE.instantiateTemplate(true);
+
+        Synapse s = t.PRIMARY_INPUT_SYNAPSE_TEMPLATE.instantiateTemplate(in, bn);
+        s.linkInput();
+        s.linkOutput();
+        s.addWeight(10.0);
+
+        Synapse outS = t.RELATED_INPUT_SYNAPSE_FROM_B_TEMPLATE.instantiateTemplate(bn, outN);
+        outS.linkInput();
+        outS.linkOutput();
+        outS.addWeight(1.0);
+
+        Document doc = new Document("test");
+        doc.setConfig(
+                new Config()
+                        .setMaxBranches(2)
+        );
+
+        Activation inAct = doc.createActivation(in);
+        Activation act = doc.createActivation(bn);
+        Link l = new Link(s, inAct, act, false);
+        l.linkInput();
+        l.linkOutput();
+
+        Activation b1 = act.createBranch(null);
+        Activation b2 = act.createBranch(null);
+
+        // The weakest branch has already propagated its value to an output activation.
+        Activation outAct = doc.createActivation(outN);
+        Link outLink = new Link(outS, b1, outAct, false);
+        outLink.linkInput();
+        outLink.linkOutput();
+        b1.updateNet(-5.0);
+
+        b2.updateNet(-1.0);
+        Activation b3 = act.createBranch(null);
+
+        assertNotNull(b3);
+        assertFalse(b1.isRetired());
+        assertTrue(b2.isRetired());
+        assertTrue(outAct.getInputLinks().anyMatch(il -> il.getInput() == b1));
+        assertEquals(5, doc.getNumberOfActivations());
+    }
+}
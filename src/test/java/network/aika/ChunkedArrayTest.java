@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.utils.ChunkedArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class ChunkedArrayTest {
+
+    @Test
+    public void testAgainstTreeMap() {
+        Random rnd = new Random(42);
+
+        ChunkedArray<String> array = new ChunkedArray<>();
+        TreeMap<Integer, String> expected = new TreeMap<>();
+
+        int nextId = 0;
+        for(int round = 0; round < 50000; round++) {
+            int op = rnd.nextInt(4);
+            if(op == 0) {
+                String v = "v" + round;
+                assertEquals(expected.put(nextId, v), array.put(nextId, v));
+                nextId++;
+            } else if(op == 1 && nextId > 0) {
+                int id = Math.max(0, nextId - 1 - rnd.nextInt(3000));
+                String v = "c" + round;
+                assertEquals(expected.put(id, v), array.put(id, v));
+            } else if(op == 2 && nextId > 0) {
+                int id = Math.max(0, nextId - 1 - rnd.nextInt(3000));
+                assertEquals(expected.remove(id), array.remove(id));
+            } else {
+                assertEquals(expected.get(nextId - 1), array.get(nextId - 1));
+            }
+            assertEquals(expected.size(), array.size());
+
+            if(round % 1000 == 0)
+                assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(array.values()));
+        }
+
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(array.values()));
+    }
+}
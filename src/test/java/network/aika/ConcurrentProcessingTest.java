@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.neuron.Neuron;
+import network.aika.neuron.NeuronProvider;
+import network.aika.neuron.Synapse;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import network.aika.text.TextReference;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static network.aika.neuron.sign.Sign.NEG;
+import static network.aika.neuron.sign.Sign.POS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Processes many documents concurrently against one shared model and checks that the collected statistics
+ * match those of the sequential processing of the same documents.
+ *
+ * @author Lukas Molzberger
+ */
+public class ConcurrentProcessingTest {
+
+    private static final int VOCABULARY_SIZE = 10;
+    private static final int THREADS = 8;
+    private static final int DOCUMENTS_PER_THREAD = 20;
+    private static final int DOCUMENT_LENGTH = 15;
+
+    @Test
+    public void testConcurrentStatisticsMatch() throws Exception {
+        List<String[]> docs = new ArrayList<>();
+        Random rnd = new Random(42);
+        for(int i = 0; i < THREADS * DOCUMENTS_PER_THREAD; i++)
+            docs.add(randomTokens(rnd));
+
+        TextModel expected = initModel();
+        for(String[] tokens: docs)
+            createDocument(expected, tokens).process(expected);
+
+        // The documents are created in the same order, so they reserve the same ranges of positions.
+        TextModel actual = initModel();
+        List<Document> actualDocs = new ArrayList<>();
+        for(String[] tokens: docs)
+            actualDocs.add(createDocument(actual, tokens));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for(int t = 0; t < THREADS; t++) {
+                List<Document> batch = actualDocs.subList(t * DOCUMENTS_PER_THREAD, (t + 1) * DOCUMENTS_PER_THREAD);
+                futures.add(
+                        executor.submit(() -> batch.forEach(doc -> doc.process(actual)))
+                );
+            }
+            for(Future<?> f: futures)
+                f.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(expected.getN(), actual.getN());
+
+        List<Double> expectedFrequencies = collectFrequencies(expected);
+        List<Double> actualFrequencies = collectFrequencies(actual);
+
+        assertTrue(expectedFrequencies.stream().anyMatch(f -> f > 0.0));
+        assertEquals(expectedFrequencies, actualFrequencies);
+    }
+
+    private TextModel initModel() {
+        TextModel m = new TextModel();
+        m.init();
+
+        for(int i = 0; i < VOCABULARY_SIZE; i++)
+            m.lookupToken("T" + i);
+
+        return m;
+    }
+
+    private String[] randomTokens(Random rnd) {
+        String[] tokens = new String[DOCUMENT_LENGTH];
+        for(int i = 0; i < tokens.length; i++)
+            tokens[i] = "T" + rnd.nextInt(VOCABULARY_SIZE);
+        return tokens;
+    }
+
+    private Document createDocument(TextModel m, String[] tokens) {
+        Document doc = new Document(String.join(" ", tokens));
+        doc.setConfig(Util.getTestConfig());
+
+        int i = 0;
+        TextReference lastRef = null;
+        for(String t: tokens) {
+            int j = i + t.length();
+            lastRef = doc.processToken(m, lastRef, i, j, t).getReference();
+            i = j + 1;
+        }
+        return doc;
+    }
+
+    private List<Double> collectFrequencies(TextModel m) {
+        List<Double> frequencies = new ArrayList<>();
+        m.getActiveNeurons()
+                .stream()
+                .map(NeuronProvider::getNeuron)
+                .sorted(Comparator.comparing(Neuron::getId))
+                .forEach(n -> collectFrequencies(frequencies, n));
+        return frequencies;
+    }
+
+    private void collectFrequencies(List<Double> frequencies, Neuron<?> n) {
+        frequencies.add(n.getFrequency());
+        frequencies.add(n.getSampleSpace().getN(null));
+        n.getInputSynapses()
+                .map(s -> (Synapse) s)
+                .forEach(s -> {
+                    frequencies.add(s.getSampleSpace().getN(null));
+                    frequencies.add(s.getFrequency(POS, POS, 0.0));
+                    frequencies.add(s.getFrequency(POS, NEG, 0.0));
+                    frequencies.add(s.getFrequency(NEG, POS, 0.0));
+                });
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.utils.ConcurrentSortedLongMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class ConcurrentSortedLongMapTest {
+
+    @Test
+    public void testAgainstTreeMap() {
+        Random rnd = new Random(42);
+
+        ConcurrentSortedLongMap<String> map = new ConcurrentSortedLongMap<>();
+        TreeMap<Long, String> expected = new TreeMap<>();
+
+        for(int round = 0; round < 50000; round++) {
+            // mostly ascending keys, as for newly created neurons
+            long key = rnd.nextInt(4) == 0 ?
+                    rnd.nextInt(round + 1) :
+                    round;
+            int op = rnd.nextInt(4);
+            if(op == 0 || op == 1) {
+                String v = "v" + round;
+                assertEquals(expected.put(key, v), map.put(key, v));
+            } else if(op == 2) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.get(key), map.get(key));
+                assertEquals(expected.containsKey(key), map.containsKey(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        List<String> expectedValues = new ArrayList<>(expected.values());
+        assertEquals(expectedValues, new ArrayList<>(map.values()));
+        assertEquals(expectedValues, map.stream().collect(Collectors.toList()));
+
+        List<String> visited = new ArrayList<>();
+        map.forEach(visited::add);
+        assertEquals(expectedValues, visited);
+    }
+
+    @Test
+    public void testIterationIsolatedFromWrites() {
+        ConcurrentSortedLongMap<String> map = new ConcurrentSortedLongMap<>();
+        for(long k = 0; k < 10; k += 2)
+            map.put(k, "v" + k);
+
+        List<String> visited = new ArrayList<>();
+        map.forEach(v -> {
+            visited.add(v);
+            map.put(100 + visited.size(), "appended");
+            map.put(1, "inserted");
+            map.remove(8);
+        });
+
+        assertEquals(List.of("v0", "v2", "v4", "v6", "v8"), visited);
+        assertEquals(10, map.size());
+    }
+}
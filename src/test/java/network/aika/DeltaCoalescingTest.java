@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.callbacks.EventListener;
+import network.aika.neuron.Neuron;
+import network.aika.neuron.NeuronProvider;
+import network.aika.neuron.Synapse;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.activation.Gradient;
+import network.aika.neuron.activation.Link;
+import network.aika.neuron.activation.QueueEntry;
+import network.aika.neuron.excitatory.BindingNeuron;
+import network.aika.neuron.steps.link.PropagateGradientAndUpdateWeight;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import network.aika.text.TextReference;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the results of processing the same documents with and without delta coalescing.
+ *
+ * @author Lukas Molzberger
+ */
+public class DeltaCoalescingTest {
+
+    private static final double TOLERANCE = 0.001;
+
+    private static final String[] PHRASES = new String[] {
+            "der Hund bellt",
+            "die Katze schläft",
+            "der Hund schläft",
+            "das Pferd frisst",
+            "die Katze frisst",
+            "der Hund frisst"
+    };
+
+    @Test
+    public void testCoalescedResultsMatch() {
+        Result expected = run(false);
+        Result actual = run(true);
+
+        System.out.println("Processed queue entries: " + expected.processedEntries + " uncoalesced, " + actual.processedEntries + " coalesced");
+
+        assertTrue(actual.processedEntries <= expected.processedEntries);
+
+        assertEquals(expected.nets.size(), actual.nets.size());
+        for(int i = 0; i < expected.nets.size(); i++)
+            assertEquals(expected.nets.get(i), actual.nets.get(i), TOLERANCE);
+
+        assertEquals(expected.weights.size(), actual.weights.size());
+        for(int i = 0; i < expected.weights.size(); i++)
+            assertEquals(expected.weights.get(i), actual.weights.get(i), TOLERANCE);
+    }
+
+    /**
+     * Propagates two gradients out of every activation with several input links before the queue is processed,
+     * so that the pending gradient steps of each input link are merged.
+     */
+    @Test
+    public void testCoalescedGradientsMatch() {
+        Result expected = runGradientFanIn(false);
+        Result actual = runGradientFanIn(true);
+
+        assertTrue(actual.gradientEntries < expected.gradientEntries);
+
+        assertEquals(expected.weights.size(), actual.weights.size());
+        for(int i = 0; i < expected.weights.size(); i++)
+            assertEquals(expected.weights.get(i), actual.weights.get(i), TOLERANCE);
+    }
+
+    private Result runGradientFanIn(boolean coalesce) {
+        Result r = new Result();
+
+        TextModel m = new TextModel();
+        m.init();
+
+        Document doc = new Document("A B C");
+        doc.setConfig(
+                Util.getTestConfig()
+                        .setAlpha(0.99)
+                        .setLearnRate(-0.1)
+                        .setCoalesceDeltaSteps(coalesce)
+        );
+        doc.addEventListener(new EventListener() {
+            @Override
+            public void onActivationCreationEvent(Activation act, Activation originAct) {
+            }
+
+            @Override
+            public void onLinkCreationEvent(Link l) {
+            }
+
+            @Override
+            public void beforeProcessedEvent(QueueEntry qe) {
+                if(qe.getStep() instanceof PropagateGradientAndUpdateWeight)
+                    r.gradientEntries++;
+            }
+
+            @Override
+            public void afterProcessedEvent(QueueEntry qe) {
+            }
+        });
+
+        processTokens(m, doc);
+        doc.processQueue(qe -> true);
+
+        List<Activation> fanIn = doc.getActivations()
+                .stream()
+                .filter(act -> act.getNeuron() instanceof BindingNeuron)
+                .filter(act -> act.getInputLinks().count() > 1)
+                .filter(act -> act.getInputLinks().allMatch(l -> l.getInput() != null))
+                .collect(Collectors.toList());
+        assertTrue(!fanIn.isEmpty());
+
+        // the relation binding neurons are input neurons, which do not propagate gradients to their inputs
+        for(Activation act: fanIn) {
+            act.getNeuron().setInputNeuron(false);
+            act.getInputLinks().forEach(l -> l.getSynapse().setAllowTraining(true));
+        }
+
+        for(Activation act: fanIn) {
+            act.propagateGradientsOut(new Gradient().addOwn(0.1));
+            act.propagateGradientsOut(new Gradient().addOwn(0.2));
+        }
+        doc.process(m);
+
+        for(Activation act: fanIn) {
+            act.getInputLinks()
+                    .map(l -> l.getSynapse().getWeight())
+                    .forEach(r.weights::add);
+        }
+        return r;
+    }
+
+    private static void processTokens(TextModel m, Document doc) {
+        int i = 0;
+        TextReference lastRef = null;
+        for (String t : doc.getContent().split(" ")) {
+            int j = i + t.length();
+            lastRef = doc.processToken(m, lastRef, i, j, t).getReference();
+            i = j + 1;
+        }
+    }
+
+    private Result run(boolean coalesce) {
+        Result r = new Result();
+
+        TextModel m = new TextModel();
+        m.init();
+
+        for(int round = 0; round < 3; round++) {
+            for (String phrase : PHRASES) {
+                Document doc = new Document(phrase);
+                doc.setConfig(
+                        Util.getTestConfig()
+                                .setAlpha(0.99)
+                                .setLearnRate(-0.1)
+                                .setEnableTraining(round > 0)
+                                .setCoalesceDeltaSteps(coalesce)
+                );
+                doc.addEventListener(new EventListener() {
+                    @Override
+                    public void onActivationCreationEvent(Activation act, Activation originAct) {
+                    }
+
+                    @Override
+                    public void onLinkCreationEvent(Link l) {
+                    }
+
+                    @Override
+                    public void beforeProcessedEvent(QueueEntry qe) {
+                        r.processedEntries++;
+                    }
+
+                    @Override
+                    public void afterProcessedEvent(QueueEntry qe) {
+                    }
+                });
+
+                processTokens(m, doc);
+                doc.process(m);
+
+                for(Activation act: doc.getActivations())
+                    r.nets.add(act.getNet());
+            }
+        }
+
+        List<Neuron> neurons = m.getActiveNeurons()
+                .stream()
+                .map(NeuronProvider::getNeuron)
+                .sorted(Comparator.comparing(Neuron::getId))
+                .collect(Collectors.toList());
+
+        for(Neuron<?> n: neurons) {
+            r.weights.add(n.getBias());
+            n.getInputSynapses()
+                    .map(s -> ((Synapse) s).getWeight())
+                    .forEach(r.weights::add);
+        }
+        return r;
+    }
+
+    private static class Result {
+        long processedEntries;
+        long gradientEntries;
+        List<Double> nets = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.neuron.SampleSpace;
+import network.aika.neuron.Synapse;
+import network.aika.neuron.Templates;
+import network.aika.neuron.excitatory.BindingNeuron;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Random;
+
+import static network.aika.neuron.sign.Sign.NEG;
+import static network.aika.neuron.sign.Sign.POS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Compares the lazily decayed statistics of neurons and synapses with an eager moving average, which
+ * multiplies all counts by alpha on every decay step.
+ *
+ * @author Lukas Molzberger
+ */
+public class MovingAverageTest {
+
+    private static final double ALPHA = 0.99;
+
+    // long enough to normalize the decay scale several times
+    private static final int STEPS = 30000;
+
+    @Test
+    public void testNeuronDecay() throws Exception {
+        TextModel m = new TextModel();
+        m.init();
+
+        BindingNeuron n = m.getTemplates().SAME_BINDING_TEMPLATE.instantiateTemplate(true);
+        Random rnd = new Random(42);
+
+        double frequency = 0.0;
+        double N = 0.0;
+        for(int i = 0; i < STEPS; i++) {
+            Double alpha = rnd.nextInt(10) == 0 ? null : ALPHA;
+            n.count(null, alpha);
+
+            if(alpha != null) {
+                frequency *= alpha;
+                N *= alpha;
+            }
+            frequency += 1.0;
+            N += 1.0;
+
+            assertEquals(frequency, n.getFrequency(), tolerance(frequency));
+            assertEquals(N, n.getSampleSpace().getN(null), tolerance(N));
+        }
+
+        assertRoundTrip(n.getSampleSpace(), m);
+    }
+
+    @Test
+    public void testSynapseDecay() throws Exception {
+        TextModel m = new TextModel();
+        m.init();
+        Templates t = m.getTemplates();
+
+        BindingNeuron in = t.SAME_BINDING_TEMPLATE.instantiateTemplate(true);
+        BindingNeuron out = t.SAME_BINDING_TEMPLATE.instantiateTemplate(true);
+        Synapse s = t.RELATED_INPUT_SYNAPSE_FROM_B_TEMPLATE.instantiateTemplate(in, out);
+        Random rnd = new Random(42);
+
+        double fPP = 0.0;
+        double fPN = 0.0;
+        double fNP = 0.0;
+        double N = 0.0;
+        for(int i = 0; i < STEPS; i++) {
+            boolean iActive = rnd.nextBoolean();
+            boolean oActive = rnd.nextBoolean();
+            s.count(null, iActive, oActive, ALPHA);
+
+            if(oActive) {
+                fPP *= ALPHA;
+                fPN *= ALPHA;
+                fNP *= ALPHA;
+                N *= ALPHA;
+            }
+            N += 1.0;
+            if(iActive && oActive) {
+                fPP += 1.0;
+            } else if(iActive) {
+                fPN += 1.0;
+            } else if(oActive) {
+                fNP += 1.0;
+            }
+
+            double n = s.getSampleSpace().getN(null);
+            assertEquals(N, n, tolerance(N));
+            assertEquals(fPP, s.getFrequency(POS, POS, n), tolerance(fPP));
+            assertEquals(fPN, s.getFrequency(POS, NEG, n), tolerance(fPN));
+            assertEquals(fNP, s.getFrequency(NEG, POS, n), tolerance(fNP));
+            assertEquals(N - fPP - fPN - fNP, s.getFrequency(NEG, NEG, n), tolerance(N));
+        }
+
+        assertRoundTrip(s.getSampleSpace(), m);
+    }
+
+    @Test
+    public void testDecayDoesNotMarkModified() {
+        TextModel m = new TextModel();
+        m.init();
+
+        BindingNeuron n = m.getTemplates().SAME_BINDING_TEMPLATE.instantiateTemplate(true);
+        n.setFrequency(10.0);
+        n.setModified(false);
+
+        n.applyMovingAverage(ALPHA);
+
+        assertFalse(n.isModified());
+        assertEquals(10.0 * ALPHA, n.getFrequency(), tolerance(10.0));
+    }
+
+    private static void assertRoundTrip(SampleSpace sampleSpace, Model m) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        sampleSpace.write(new DataOutputStream(baos));
+
+        SampleSpace copy = SampleSpace.read(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())), m);
+
+        assertEquals(1.0, copy.getDecayScale());
+        assertEquals(sampleSpace.getN(null), copy.getN(null), tolerance(copy.getN(null)));
+    }
+
+    private static double tolerance(double expected) {
+        return 1e-9 * Math.max(1.0, Math.abs(expected));
+    }
+}
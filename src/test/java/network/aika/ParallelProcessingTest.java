@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.neuron.Neuron;
+import network.aika.neuron.NeuronProvider;
+import network.aika.neuron.Synapse;
+import network.aika.neuron.activation.Activation;
+import network.aika.text.Document;
+import network.aika.text.TextModel;
+import network.aika.text.TextReference;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the parallel processing of queue entries yields exactly the same results as the sequential
+ * processing.
+ *
+ * @author Lukas Molzberger
+ */
+public class ParallelProcessingTest {
+
+    private static final String[] PHRASES = new String[] {
+            "der Hund bellt",
+            "die Katze schläft",
+            "der Hund schläft",
+            "das Pferd frisst",
+            "die Katze frisst",
+            "der Hund frisst die Wurst"
+    };
+
+    @Test
+    public void testParallelResultsMatch() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(run(null), run(pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private String run(ForkJoinPool pool) {
+        StringBuilder sb = new StringBuilder();
+
+        TextModel m = new TextModel();
+        m.init();
+
+        for(int round = 0; round < 3; round++) {
+            for (String phrase : PHRASES) {
+                Document doc = new Document(phrase);
+                doc.setConfig(
+                        Util.getTestConfig()
+                                .setAlpha(0.99)
+                                .setLearnRate(-0.1)
+                                .setEnableTraining(round > 0)
+                                .setForkJoinPool(pool)
+                                .setCountPrunedSteps(true)
+                );
+
+                int i = 0;
+                TextReference lastRef = null;
+                for (String t : phrase.split(" ")) {
+                    int j = i + t.length();
+                    lastRef = doc.processToken(m, lastRef, i, j, t).getReference();
+                    i = j + 1;
+                }
+
+                doc.process(m);
+
+                sb.append("pruned:" + doc.getPruneCounts() + "\n");
+                for(Activation act: doc.getActivations()) {
+                    sb.append(act.getId() + " " + act.getNeuron() + " net:" + act.getNet() + " fired:" + act.getFired() + "\n");
+                    act.getInputLinks()
+                            .forEach(l -> sb.append("  " + l.getSynapse().getInput() + "\n"));
+                }
+            }
+        }
+
+        m.getActiveNeurons()
+                .stream()
+                .map(NeuronProvider::getNeuron)
+                .sorted(Comparator.comparing(Neuron::getId))
+                .forEach(n -> appendNeuron(sb, n));
+
+        return sb.toString();
+    }
+
+    private void appendNeuron(StringBuilder sb, Neuron<?> n) {
+        sb.append(n.toDetailedString() + " f:" + n.getFrequency() + " " + n.getSampleSpace() + "\n");
+        n.getInputSynapses()
+                .forEach(s -> sb.append("  " + s + " " + s.getSampleSpace() + " " + s.statToString()));
+    }
+}
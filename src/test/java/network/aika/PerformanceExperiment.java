@@ -0,0 +1,702 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.neuron.Neuron;
+import network.aika.neuron.NeuronProvider;
+import network.aika.neuron.Synapse;
+import network.aika.neuron.Templates;
+import network.aika.neuron.activation.Activation;
+import network.aika.neuron.activation.Link;
+import network.aika.neuron.activation.direction.Direction;
+import network.aika.neuron.excitatory.BindingNeuron;
+import network.aika.neuron.sign.Sign;
+import network.aika.text.Document;
+import network.aika.text.StreamingDocument;
+import network.aika.text.TextModel;
+import network.aika.text.TextReference;
+import network.aika.utils.ConcurrentSortedLongMap;
+import network.aika.utils.SortedLongMap;
+import network.aika.utils.Utils;
+import org.apache.commons.math3.distribution.BetaDistribution;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static network.aika.neuron.activation.direction.Direction.DIRECTIONS;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class PerformanceExperiment {
+
+    private static final int VOCABULARY_SIZE = 50;
+
+    @Test
+    public void testThroughputByDocumentLength() {
+        TextModel m = initModel();
+        Random rnd = new Random(100);
+
+        // warm up
+        for(int i = 0; i < 5; i++)
+            processDocument(m, 1000, rnd, new Config());
+
+        for(int length: new int[] {100, 1000, 10000, 50000}) {
+            long start = System.nanoTime();
+            Document doc = processDocument(m, length, rnd, new Config());
+            long time = System.nanoTime() - start;
+
+            System.out.println(
+                    "Tokens:" + length +
+                    " Activations:" + doc.getActivations().size() +
+                    " Time:" + (time / 1000000) + "ms" +
+                    " Time per token:" + (time / length) + "ns"
+            );
+        }
+    }
+
+    @Test
+    public void testParallelThroughput() {
+        ForkJoinPool pool = new ForkJoinPool();
+        TextModel m = initModel();
+
+        for(int i = 0; i < 5; i++) {
+            processDocument(m, 1000, new Random(i), new Config());
+            processDocument(m, 1000, new Random(i), new Config().setForkJoinPool(pool));
+        }
+
+        for(ForkJoinPool p: new ForkJoinPool[] {null, pool}) {
+            long start = System.nanoTime();
+            processDocument(m, 20000, new Random(100), new Config().setForkJoinPool(p));
+            long time = System.nanoTime() - start;
+
+            System.out.println(
+                    (p != null ? "Parallelism:" + p.getParallelism() : "Sequential") +
+                    " Time:" + (time / 1000000) + "ms"
+            );
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void testConcurrentDocumentThroughput() throws Exception {
+        int documents = 64;
+        TextModel m = initModel();
+
+        for(int i = 0; i < 5; i++)
+            processDocument(m, 1000, new Random(i), new Config());
+
+        for(int threads: new int[] {1, 2, 4, 8}) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for(int i = 0; i < documents; i++) {
+                Random rnd = new Random(i);
+                futures.add(
+                        executor.submit(() -> processDocument(m, 1000, rnd, new Config()))
+                );
+            }
+            for(Future<?> f: futures)
+                f.get();
+            long time = System.nanoTime() - start;
+            executor.shutdown();
+
+            System.out.println(
+                    "Threads:" + threads +
+                    " Documents:" + documents +
+                    " Time:" + (time / 1000000) + "ms" +
+                    " Documents per second:" + (documents * 1000000000L / time)
+            );
+        }
+    }
+
+    @Test
+    public void testStreamingMemory() {
+        TextModel m = initModel();
+        Random rnd = new Random(100);
+        Runtime rt = Runtime.getRuntime();
+
+        for(int length: new int[] {1000, 10000, 100000}) {
+            StreamingDocument doc = new StreamingDocument(100);
+            doc.setConfig(new Config());
+
+            long maxUsed = 0;
+            for(int i = 0; i < length; i++) {
+                doc.addToken(m, tokenLabel(rnd.nextInt(VOCABULARY_SIZE)));
+
+                if(i % 1000 == 0) {
+                    System.gc();
+                    maxUsed = Math.max(maxUsed, rt.totalMemory() - rt.freeMemory());
+                }
+            }
+            doc.process(m);
+
+            System.out.println(
+                    "Tokens:" + length +
+                    " Retained activations:" + doc.getNumberOfActivations() +
+                    " Retired activations:" + doc.getNumberOfRetiredActivations() +
+                    " Max heap used:" + (maxUsed / 1024) + "kb"
+            );
+        }
+    }
+
+    @Test
+    public void testLatencyCap() {
+        TextModel m = initModel();
+        Duration budget = Duration.ofMillis(20);
+
+        for(int i = 0; i < 5; i++)
+            processDocument(m, 1000, new Random(i), new Config());
+
+        long maxUnbounded = 0;
+        long maxBounded = 0;
+        int interrupted = 0;
+        for(int i = 0; i < 20; i++) {
+            int length = 100 + new Random(i).nextInt(5000);
+
+            Document doc = createDocument(m, length, new Random(i), new Config());
+            long start = System.nanoTime();
+            doc.process(m);
+            maxUnbounded = Math.max(maxUnbounded, System.nanoTime() - start);
+
+            doc = createDocument(m, length, new Random(i), new Config());
+            start = System.nanoTime();
+            ProcessingStatus status = doc.process(m, Instant.now().plus(budget));
+            maxBounded = Math.max(maxBounded, System.nanoTime() - start);
+
+            if(!status.isComplete()) {
+                interrupted++;
+                doc.process(m);
+            }
+        }
+
+        System.out.println(
+                "Budget:" + budget.toMillis() + "ms" +
+                " Max latency unbounded:" + (maxUnbounded / 1000000) + "ms" +
+                " Max latency bounded:" + (maxBounded / 1000000) + "ms" +
+                " Interrupted:" + interrupted
+        );
+    }
+
+    public TextModel initModel() {
+        TextModel m = new TextModel();
+        m.init();
+
+        for(int i = 0; i < VOCABULARY_SIZE; i++)
+            m.lookupToken(tokenLabel(i));
+
+        return m;
+    }
+
+    public Document processDocument(TextModel m, int length, Random rnd, Config c) {
+        Document doc = createDocument(m, length, rnd, c);
+        doc.process(m);
+        return doc;
+    }
+
+    @Test
+    public void testPruneCounts() {
+        TextModel m = initModel();
+        Config c = new Config()
+                .setEnableTraining(true)
+                .setCountPrunedSteps(true);
+
+        Map<String, Long> pruneCounts = new TreeMap<>();
+        for(int i = 0; i < 20; i++)
+            processDocument(m, 100, new Random(i), c)
+                    .getPruneCounts()
+                    .forEach((step, n) ->
+                            pruneCounts.merge(step, n, Long::sum)
+                    );
+
+        pruneCounts.forEach((step, n) ->
+                System.out.println(step + " pruned:" + n)
+        );
+    }
+
+    @Test
+    public void testTemplateTransitions() {
+        TextModel m = initModel();
+        Collection<Neuron> templates = m.getTemplates().getAllTemplates();
+        int rounds = 200000;
+
+        for(int run = 0; run < 3; run++) {
+            long found = 0;
+            long start = System.nanoTime();
+            for(int i = 0; i < rounds; i++) {
+                for(Neuron<?> n: templates) {
+                    for(Direction dir: DIRECTIONS) {
+                        found += n.getTemplateGroup().stream()
+                                .flatMap(tn ->
+                                        dir.getSynapses(tn, true)
+                                )
+                                .count();
+                    }
+                }
+            }
+            long streamTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for(int i = 0; i < rounds; i++) {
+                for(Neuron<?> n: templates) {
+                    for(Direction dir: DIRECTIONS)
+                        found += n.getTemplateInfo().getTargetSynapses(dir, true).length;
+                }
+            }
+            long tableTime = System.nanoTime() - start;
+
+            System.out.println(
+                    "Lookups:" + (rounds * templates.size() * DIRECTIONS.length) +
+                    " Stream:" + (streamTime / 1000000) + "ms" +
+                    " Table:" + (tableTime / 1000000) + "ms" +
+                    " Found:" + found
+            );
+        }
+    }
+
+    @Test
+    public void testSurprisal() {
+        TextModel m = initModel();
+        Config c = new Config()
+                .setEnableTraining(true);
+
+        Document doc = null;
+        for(int i = 0; i < 20; i++)
+            doc = processDocument(m, 100, new Random(i), c);
+
+        List<Link> links = doc.getActivations()
+                .stream()
+                .flatMap(act -> act.getInputLinks())
+                .filter(l -> !l.isNegative() && l.getInput() != null)
+                .collect(Collectors.toList());
+
+        for(int run = 0; run < 3; run++) {
+            double sum = 0.0;
+            long start = System.nanoTime();
+            for(Link l: links) {
+                Synapse syn = l.getSynapse();
+                double n = syn.getSampleSpace().getN(l.getInput().getReference());
+                for(Sign si: Sign.SIGNS) {
+                    for(Sign so: Sign.SIGNS) {
+                        BetaDistribution dist = new BetaDistribution(
+                                syn.getFrequency(si, so, n) + 1,
+                                n + 1
+                        );
+                        sum += dist.inverseCumulativeProbability(Neuron.BETA_THRESHOLD);
+                    }
+                }
+            }
+            long uncachedTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for(Link l: links) {
+                Synapse syn = l.getSynapse();
+                double n = syn.getSampleSpace().getN(l.getInput().getReference());
+                for(Sign si: Sign.SIGNS) {
+                    for(Sign so: Sign.SIGNS)
+                        sum += syn.getP(si, so, n);
+                }
+            }
+            long cachedTime = System.nanoTime() - start;
+
+            System.out.println(
+                    "Links:" + links.size() +
+                    " Uncached per link:" + (uncachedTime / (1000 * links.size())) + "us" +
+                    " Cached per link:" + (cachedTime / links.size()) + "ns" +
+                    " Sum:" + Utils.round(sum)
+            );
+        }
+    }
+
+    @Test
+    public void testSynapseInputLinkUpdates() {
+        for(int numberOfInputs: new int[] {100, 1000, 5000}) {
+            TextModel m = initModel();
+            Templates t = m.getTemplates();
+            Random rnd = new Random(42);
+
+            BindingNeuron n = t.SAME_BINDING_TEMPLATE.instantiateTemplate(true);
+            List<Synapse> synapses = new ArrayList<>();
+            for(int i = 0; i < numberOfInputs; i++) {
+                BindingNeuron in = t.SAME_BINDING_TEMPLATE.instantiateTemplate(true);
+                Synapse s = t.RELATED_INPUT_SYNAPSE_FROM_B_TEMPLATE.instantiateTemplate(in, n);
+                s.setWeight(rnd.nextDouble());
+                s.linkOutput();
+                synapses.add(s);
+            }
+
+            int updates = 1000;
+            long start = System.nanoTime();
+            for(int i = 0; i < updates; i++) {
+                synapses.get(rnd.nextInt(numberOfInputs)).addWeight(rnd.nextDouble() - 0.5);
+
+                TreeSet<Synapse> sortedSynapses = new TreeSet<>(
+                        Comparator.<Synapse>comparingDouble(s -> s.getWeight()).reversed()
+                                .thenComparing(s -> s.getPInput())
+                );
+                sortedSynapses.addAll(n.getInputSynapses().collect(Collectors.toList()));
+
+                double sum = n.getBias();
+                for(Synapse s: sortedSynapses) {
+                    if(s.getWeight() <= 0.0) break;
+                    s.updateInputLink(sum > 0.0);
+                    sum -= s.getWeight();
+                }
+            }
+            long sortingTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for(int i = 0; i < updates; i++) {
+                synapses.get(rnd.nextInt(numberOfInputs)).addWeight(rnd.nextDouble() - 0.5);
+                n.updateSynapseInputLinks();
+            }
+            long indexTime = System.nanoTime() - start;
+
+            System.out.println(
+                    "Inputs:" + numberOfInputs +
+                    " Sorting per update:" + (sortingTime / (1000 * updates)) + "us" +
+                    " Index per update:" + (indexTime / (1000 * updates)) + "us"
+            );
+        }
+    }
+
+    @Test
+    public void testLinkMapThroughput() {
+        int linksPerActivation = 20;
+        int activations = 100000;
+
+        long[] keys = new long[linksPerActivation];
+        Random rnd = new Random(42);
+        for(int i = 0; i < keys.length; i++)
+            keys[i] = rnd.nextInt(1000);
+
+        for(int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            long found = 0;
+            for(int a = 0; a < activations; a++) {
+                TreeMap<Long, Object> map = new TreeMap<>();
+                for(long k: keys)
+                    map.put(k, map);
+                for(long k: keys)
+                    if(map.get(k) != null) found++;
+            }
+            long treeMapTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for(int a = 0; a < activations; a++) {
+                SortedLongMap<Object> map = new SortedLongMap<>();
+                for(long k: keys)
+                    map.put(k, map);
+                for(long k: keys)
+                    if(map.get(k) != null) found++;
+            }
+            long sortedLongMapTime = System.nanoTime() - start;
+
+            System.out.println(
+                    "Links:" + (activations * linksPerActivation) +
+                    " TreeMap:" + (treeMapTime / 1000000) + "ms" +
+                    " SortedLongMap:" + (sortedLongMapTime / 1000000) + "ms" +
+                    " Found:" + found
+            );
+        }
+    }
+
+    @Test
+    public void testSynapseMapOnHubNeuron() {
+        int numberOfSynapses = 1000000;
+        int lookups = 1000000;
+        Runtime rt = Runtime.getRuntime();
+
+        NeuronProvider[] providers = new NeuronProvider[numberOfSynapses];
+        for(int i = 0; i < numberOfSynapses; i++)
+            providers[i] = new NeuronProvider(i);
+
+        Random rnd = new Random(42);
+        int[] lookupOrder = new int[lookups];
+        for(int i = 0; i < lookups; i++)
+            lookupOrder[i] = rnd.nextInt(numberOfSynapses);
+
+        for(int round = 0; round < 3; round++) {
+            System.gc();
+            long before = rt.totalMemory() - rt.freeMemory();
+            ConcurrentSkipListMap<NeuronProvider, Object> skipListMap = new ConcurrentSkipListMap<>();
+            for(NeuronProvider p: providers)
+                skipListMap.put(p, p);
+            System.gc();
+            long skipListMemory = rt.totalMemory() - rt.freeMemory() - before;
+
+            long start = System.nanoTime();
+            long found = 0;
+            for(int i: lookupOrder)
+                if(skipListMap.get(providers[i]) != null) found++;
+            long skipListTime = System.nanoTime() - start;
+            skipListMap = null;
+
+            System.gc();
+            before = rt.totalMemory() - rt.freeMemory();
+            ConcurrentSortedLongMap<Object> longMap = new ConcurrentSortedLongMap<>();
+            for(NeuronProvider p: providers)
+                longMap.put(p.getId(), p);
+            System.gc();
+            long longMapMemory = rt.totalMemory() - rt.freeMemory() - before;
+
+            start = System.nanoTime();
+            for(int i: lookupOrder)
+                if(longMap.get(providers[i].getId()) != null) found++;
+            long longMapTime = System.nanoTime() - start;
+            longMap = null;
+
+            System.out.println(
+                    "Synapses:" + numberOfSynapses +
+                    " ConcurrentSkipListMap: " + (skipListMemory / numberOfSynapses) + "B/entry " +
+                    (skipListTime / lookups) + "ns/lookup" +
+                    " ConcurrentSortedLongMap: " + (longMapMemory / numberOfSynapses) + "B/entry " +
+                    (longMapTime / lookups) + "ns/lookup" +
+                    " Found:" + found
+            );
+        }
+    }
+
+    @Test
+    public void testSynapseLookupThroughput() throws Exception {
+        int numberOfInputs = 1000;
+        int lookups = 4000000;
+
+        TextModel m = initModel();
+        Templates t = m.getTemplates();
+
+        BindingNeuron n = t.SAME_BINDING_TEMPLATE.instantiateTemplate(true);
+        NeuronProvider[] inputs = new NeuronProvider[numberOfInputs];
+        for(int i = 0; i < numberOfInputs; i++) {
+            BindingNeuron in = t.SAME_BINDING_TEMPLATE.instantiateTemplate(true);
+            t.RELATED_INPUT_SYNAPSE_FROM_B_TEMPLATE.instantiateTemplate(in, n)
+                    .linkOutput();
+            inputs[i] = in.getProvider();
+        }
+
+        for(int threads: new int[] {1, 2, 4, 8, 16, 32}) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+            long start = System.nanoTime();
+            List<Future<Long>> futures = new ArrayList<>();
+            for(int i = 0; i < threads; i++) {
+                Random rnd = new Random(i);
+                futures.add(
+                        executor.submit(() -> {
+                            long found = 0;
+                            for(int j = 0; j < lookups / threads; j++)
+                                if(n.getInputSynapse(inputs[rnd.nextInt(numberOfInputs)]) != null) found++;
+                            return found;
+                        })
+                );
+            }
+            long found = 0;
+            for(Future<Long> f: futures)
+                found += f.get();
+            long time = System.nanoTime() - start;
+            executor.shutdown();
+
+            System.out.println(
+                    "Threads:" + threads +
+                    " Lookups:" + found +
+                    " Time:" + (time / 1000000) + "ms" +
+                    " Lookups per second:" + (found * 1000000000L / time)
+            );
+        }
+    }
+
+    @Test
+    public void testTrainingAllocationRate() {
+        TextModel m = initModel();
+        Config c = new Config()
+                .setEnableTraining(true);
+
+        for(int i = 0; i < 20; i++)
+            processDocument(m, 100, new Random(i), c);
+
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        int tokens = 0;
+        long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for(int i = 0; i < 50; i++) {
+            processDocument(m, 100, new Random(100 + i), c);
+            tokens += 100;
+        }
+        long time = System.nanoTime() - start;
+        long bytes = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+        System.out.println(
+                "Tokens:" + tokens +
+                " Allocated:" + (bytes / (1024 * 1024)) + "MB" +
+                " Allocated per token:" + (bytes / tokens) + "B" +
+                " Allocation rate:" + (bytes * 1000 / time) + "MB/s"
+        );
+    }
+
+    @Test
+    public void testInferenceAllocationRate() {
+        TextModel m = initModel();
+
+        for(int i = 0; i < 20; i++)
+            processDocument(m, 100, new Random(i), new Config());
+
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        int tokens = 0;
+        long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for(int i = 0; i < 50; i++) {
+            processDocument(m, 100, new Random(100 + i), new Config());
+            tokens += 100;
+        }
+        long time = System.nanoTime() - start;
+        long bytes = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+        System.out.println(
+                "Tokens:" + tokens +
+                " Allocated per token:" + (bytes / tokens) + "B" +
+                " Time per token:" + (time / (1000 * tokens)) + "us"
+        );
+    }
+
+    @Test
+    public void testHeapPerActivation() {
+        TextModel m = initModel();
+        Runtime rt = Runtime.getRuntime();
+
+        processDocument(m, 1000, new Random(100), new Config());
+
+        System.gc();
+        long before = rt.totalMemory() - rt.freeMemory();
+
+        Document doc = processDocument(m, 20000, new Random(100), new Config());
+
+        System.gc();
+        long after = rt.totalMemory() - rt.freeMemory();
+
+        int numberOfActs = doc.getNumberOfActivations();
+        long numberOfLinks = doc.getActivations()
+                .stream()
+                .mapToLong(act -> act.getInputLinks().count())
+                .sum();
+
+        System.out.println(
+                "Activations:" + numberOfActs +
+                " Links:" + numberOfLinks +
+                " Heap used:" + ((after - before) / 1024) + "kb" +
+                " Heap per activation:" + ((after - before) / numberOfActs) + "B"
+        );
+    }
+
+    @Test
+    public void testConflictSearch() {
+        for(int depth: new int[] {10, 15, 20, 10000}) {
+            TextModel m = initModel();
+            Templates t = m.getTemplates();
+
+            Document doc = new Document("");
+            doc.setConfig(new Config());
+
+            BindingNeuron[] prevNeurons = null;
+            Activation[] prevActs = null;
+            for(int d = 0; d < depth; d++) {
+                BindingNeuron[] neurons = new BindingNeuron[2];
+                Activation[] acts = new Activation[2];
+                for(int i = 0; i < 2; i++) {
+                    neurons[i] = t.SAME_BINDING_TEMPLATE.instantiateTemplate(true);
+                    acts[i] = doc.createActivation(neurons[i]);
+                    acts[i].setFired(d);
+
+                    if(prevActs == null)
+                        continue;
+
+                    for(int j = 0; j < 2; j++) {
+                        Synapse s = t.RELATED_INPUT_SYNAPSE_FROM_B_TEMPLATE.instantiateTemplate(prevNeurons[j], neurons[i]);
+                        s.addWeight(1.0);
+
+                        Link l = new Link(s, prevActs[j], acts[i], false);
+                        l.linkInput();
+                        l.linkOutput();
+                    }
+                }
+                prevNeurons = neurons;
+                prevActs = acts;
+            }
+
+            Activation first = doc.getActivation(0);
+
+            long start = System.nanoTime();
+            boolean found = first.searchWithinBranch();
+            long time = System.nanoTime() - start;
+
+            System.out.println(
+                    "Depth:" + depth +
+                    " Activations:" + doc.getNumberOfActivations() +
+                    " Found:" + found +
+                    " Time:" + (time / 1000) + "us"
+            );
+        }
+    }
+
+    public Document createDocument(TextModel m, int length, Random rnd, Config c) {
+        StringBuilder content = new StringBuilder();
+        String[] tokens = new String[length];
+        for(int i = 0; i < length; i++) {
+            tokens[i] = tokenLabel(rnd.nextInt(VOCABULARY_SIZE));
+            content.append(tokens[i]);
+            content.append(' ');
+        }
+
+        Document doc = new Document(content.toString());
+        doc.setConfig(c);
+
+        int pos = 0;
+        TextReference lastRef = null;
+        for(String t: tokens) {
+            lastRef = doc.processToken(m, lastRef, pos, pos + t.length(), t).getReference();
+            pos += t.length() + 1;
+        }
+        return doc;
+    }
+
+    private static String tokenLabel(int i) {
+        return "T" + i;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.utils.ReadWriteLock;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class ReadWriteLockTest {
+
+    @Test
+    public void testOptimisticReadValidation() {
+        ReadWriteLock lock = new ReadWriteLock();
+
+        long stamp = lock.tryOptimisticRead();
+        assertTrue(lock.validate(stamp));
+
+        lock.acquireReadLock();
+        assertTrue(lock.validate(stamp));
+        lock.releaseReadLock();
+
+        lock.acquireWriteLock();
+        assertFalse(lock.validate(stamp));
+        assertEquals(0, lock.tryOptimisticRead());
+        lock.releaseWriteLock();
+
+        assertFalse(lock.validate(stamp));
+        assertTrue(lock.validate(lock.tryOptimisticRead()));
+    }
+
+    @Test
+    public void testReentrantWriteLockExcludesOtherWriters() throws Exception {
+        ReadWriteLock lock = new ReadWriteLock();
+        AtomicBoolean acquired = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+
+        lock.acquireWriteLock();
+        lock.acquireWriteLock();
+
+        Thread t = new Thread(() -> {
+            lock.acquireWriteLock();
+            acquired.set(true);
+            lock.releaseWriteLock();
+            done.countDown();
+        });
+        t.start();
+
+        assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+        lock.releaseWriteLock();
+        assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+        lock.releaseWriteLock();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(acquired.get());
+    }
+}
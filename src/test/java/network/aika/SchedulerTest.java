@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.neuron.activation.Element;
+import network.aika.neuron.activation.Fired;
+import network.aika.neuron.activation.QueueEntry;
+import network.aika.neuron.activation.Scheduler;
+import network.aika.neuron.steps.Phase;
+import network.aika.neuron.steps.Step;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static network.aika.neuron.activation.Fired.NOT_FIRED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the scheduler processes the queue entries in the same order as a priority queue
+ * using the {@link QueueEntry#COMPARATOR}.
+ *
+ * @author Lukas Molzberger
+ */
+public class SchedulerTest {
+
+    @Test
+    public void testProcessingOrder() {
+        Random rnd = new Random(42);
+
+        Scheduler scheduler = new Scheduler();
+        TreeSet<QueueEntry> expected = new TreeSet<>(QueueEntry.COMPARATOR);
+        List<QueueEntry> queued = new ArrayList<>();
+
+        long timestamp = 0;
+        for(int round = 0; round < 20000; round++) {
+            int op = rnd.nextInt(10);
+            if(op < 6) {
+                QueueEntry qe = new QueueEntry(
+                        new TestStep(Phase.values()[rnd.nextInt(Phase.values().length)]),
+                        new TestElement(randomFired(rnd)),
+                        timestamp++
+                );
+                scheduler.add(qe);
+                expected.add(qe);
+                queued.add(qe);
+            } else if(op < 7 && !queued.isEmpty()) {
+                QueueEntry qe = queued.remove(rnd.nextInt(queued.size()));
+                assertEquals(expected.remove(qe), scheduler.remove(qe));
+            } else {
+                assertSame(expected.isEmpty() ? null : expected.first(), scheduler.peekFirst());
+
+                QueueEntry qe = scheduler.pollFirst();
+                assertSame(expected.pollFirst(), qe);
+                queued.remove(qe);
+            }
+            assertEquals(expected.size(), scheduler.size());
+        }
+
+        assertEquals(
+                new ArrayList<>(expected),
+                scheduler.stream().collect(Collectors.toList())
+        );
+
+        while(!expected.isEmpty())
+            assertSame(expected.pollFirst(), scheduler.pollFirst());
+
+        assertNull(scheduler.pollFirst());
+    }
+
+    /**
+     * Removes the middle half of two large buckets, one of not yet fired elements and one of fired elements.
+     */
+    @Test
+    public void testRemoveFromLargeBucket() {
+        int n = 200000;
+
+        Scheduler scheduler = new Scheduler();
+        List<QueueEntry> expected = new ArrayList<>();
+        List<QueueEntry> removed = new ArrayList<>();
+
+        long timestamp = 0;
+        for(Fired f: new Fired[] {NOT_FIRED, new Fired(5, 1)}) {
+            for (int i = 0; i < n; i++) {
+                QueueEntry qe = new QueueEntry(new TestStep(Phase.LINKING), new TestElement(f), timestamp++);
+                scheduler.add(qe);
+
+                if(i >= n / 4 && i < 3 * n / 4) {
+                    removed.add(qe);
+                } else {
+                    expected.add(qe);
+                }
+            }
+        }
+
+        for(int i = removed.size() - 1; i >= 0; i -= 2)
+            assertTrue(scheduler.remove(removed.get(i)));
+        for(int i = removed.size() - 2; i >= 0; i -= 2)
+            assertTrue(scheduler.remove(removed.get(i)));
+
+        assertFalse(scheduler.remove(removed.get(0)));
+        assertEquals(expected.size(), scheduler.size());
+        assertEquals(expected, scheduler.stream().collect(Collectors.toList()));
+
+        for(QueueEntry qe: expected) {
+            assertSame(qe, scheduler.peekFirst());
+            assertSame(qe, scheduler.pollFirst());
+        }
+        assertNull(scheduler.pollFirst());
+        assertFalse(scheduler.remove(expected.get(0)));
+    }
+
+    private static Fired randomFired(Random rnd) {
+        if(rnd.nextInt(4) == 0)
+            return NOT_FIRED;
+
+        return new Fired(rnd.nextInt(2000), rnd.nextInt(4));
+    }
+
+    private static class TestStep implements Step<TestElement> {
+        private Phase phase;
+
+        public TestStep(Phase phase) {
+            this.phase = phase;
+        }
+
+        @Override
+        public boolean process(TestElement e) {
+            return true;
+        }
+
+        @Override
+        public Phase getPhase() {
+            return phase;
+        }
+
+        @Override
+        public boolean checkIfQueued() {
+            return false;
+        }
+    }
+
+    private static class TestElement extends Element<TestElement> {
+        private Fired fired;
+
+        public TestElement(Fired fired) {
+            this.fired = fired;
+        }
+
+        @Override
+        public Fired getFired() {
+            return fired;
+        }
+
+        @Override
+        public Thought getThought() {
+            return null;
+        }
+
+        @Override
+        public Config getConfig() {
+            return null;
+        }
+
+        @Override
+        public String toShortString() {
+            return "";
+        }
+
+        @Override
+        public int compareTo(TestElement e) {
+            return 0;
+        }
+    }
+}
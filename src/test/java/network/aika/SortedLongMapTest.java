@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.neuron.activation.Activation;
+import network.aika.utils.SortedLongMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class SortedLongMapTest {
+
+    @Test
+    public void testAgainstTreeMap() {
+        Random rnd = new Random(42);
+
+        SortedLongMap<String> map = new SortedLongMap<>();
+        TreeMap<Long, String> expected = new TreeMap<>();
+
+        for(int round = 0; round < 50000; round++) {
+            long key = rnd.nextInt(500) - 250;
+            int op = rnd.nextInt(4);
+            if(op == 0) {
+                String v = "v" + round;
+                assertEquals(expected.put(key, v), map.put(key, v));
+            } else if(op == 1) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else if(op == 2) {
+                assertEquals(expected.get(key), map.get(key));
+            } else {
+                long toKey = key + rnd.nextInt(50);
+                assertEquals(
+                        new ArrayList<>(expected.subMap(key, true, toKey, true).values()),
+                        new ArrayList<>(map.values(key, toKey))
+                );
+                assertEquals(!expected.subMap(key, true, toKey, true).isEmpty(), map.containsRange(key, toKey));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+    }
+
+    @Test
+    public void testOutputKeyOrder() {
+        assertTrue(Activation.getOutputKey(1, Integer.MAX_VALUE) < Activation.getOutputKey(2, 0));
+        assertTrue(Activation.getOutputKey(2, 0) < Activation.getOutputKey(2, 1));
+    }
+}
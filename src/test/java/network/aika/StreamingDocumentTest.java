@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.neuron.Neuron;
+import network.aika.neuron.NeuronProvider;
+import network.aika.neuron.Synapse;
+import network.aika.text.Document;
+import network.aika.text.StreamingDocument;
+import network.aika.text.TextModel;
+import network.aika.text.TextReference;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static network.aika.neuron.sign.Sign.NEG;
+import static network.aika.neuron.sign.Sign.POS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Lukas Molzberger
+ */
+public class StreamingDocumentTest {
+
+    private static final int VOCABULARY_SIZE = 10;
+    private static final int WINDOW_SIZE = 20;
+
+    @Test
+    public void testBoundedWindow() {
+        TextModel m = initModel();
+        StreamingDocument doc = new StreamingDocument(WINDOW_SIZE);
+        doc.setConfig(Util.getTestConfig());
+
+        Random rnd = new Random(42);
+        int maxActivations = 0;
+        for(int i = 0; i < 2000; i++) {
+            doc.addToken(m, "T" + rnd.nextInt(VOCABULARY_SIZE));
+            maxActivations = Math.max(maxActivations, doc.getNumberOfActivations());
+        }
+        doc.process(m);
+
+        assertTrue(maxActivations < 100);
+        assertTrue(doc.getNumberOfRetiredActivations() > 0);
+        assertEquals(doc.length(), m.getN());
+        assertTrue(doc.getContent().length() <= WINDOW_SIZE);
+    }
+
+    @Test
+    public void testStatisticsMatchRegularDocument() {
+        for(int windowSize: new int[] {WINDOW_SIZE, 100})
+            testStatisticsMatchRegularDocument(windowSize);
+    }
+
+    private void testStatisticsMatchRegularDocument(int windowSize) {
+        String[] tokens = new String[300];
+        Random rnd = new Random(42);
+        for(int i = 0; i < tokens.length; i++)
+            tokens[i] = "T" + rnd.nextInt(VOCABULARY_SIZE);
+
+        TextModel expected = initModel();
+        Document doc = new Document(String.join(" ", tokens) + " ");
+        doc.setConfig(Util.getTestConfig());
+        int i = 0;
+        TextReference lastRef = null;
+        for(String t: tokens) {
+            int j = i + t.length();
+            lastRef = doc.processToken(expected, lastRef, i, j, t).getReference();
+            i = j + 1;
+        }
+        doc.process(expected);
+
+        TextModel actual = initModel();
+        StreamingDocument sDoc = new StreamingDocument(windowSize);
+        sDoc.setConfig(Util.getTestConfig());
+        for(String t: tokens)
+            sDoc.addToken(actual, t);
+        sDoc.process(actual);
+
+        assertEquals(expected.getN(), actual.getN());
+        assertEquals(collectStatistics(expected), collectStatistics(actual));
+    }
+
+    private TextModel initModel() {
+        TextModel m = new TextModel();
+        m.init();
+
+        for(int i = 0; i < VOCABULARY_SIZE; i++)
+            m.lookupToken("T" + i);
+
+        return m;
+    }
+
+    private List<String> collectStatistics(TextModel m) {
+        List<String> statistics = new ArrayList<>();
+        m.getActiveNeurons()
+                .stream()
+                .map(NeuronProvider::getNeuron)
+                .sorted(Comparator.comparing(Neuron::getId))
+                .forEach(n -> {
+                    statistics.add(n.getId() + " f:" + n.getFrequency() + " " + n.getSampleSpace());
+                    n.getInputSynapses()
+                            .forEach(s -> statistics.add(synapseStatistics((Synapse) s)));
+                });
+        return statistics;
+    }
+
+    private static String synapseStatistics(Synapse s) {
+        return s.getPInput().getId() + "->" + s.getPOutput().getId() +
+                " f(p,p):" + s.getFrequency(POS, POS, 0.0) +
+                " f(p,n):" + s.getFrequency(POS, NEG, 0.0) +
+                " f(n,p):" + s.getFrequency(NEG, POS, 0.0) +
+                " " + s.getSampleSpace();
+    }
+}
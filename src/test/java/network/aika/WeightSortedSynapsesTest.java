@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package network.aika;
+
+import network.aika.neuron.Neuron;
+import network.aika.neuron.Synapse;
+import network.aika.neuron.Templates;
+import network.aika.neuron.excitatory.BindingNeuron;
+import network.aika.text.TextModel;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the weight index of an excitatory neuron survives a write and read of the neuron.
+ *
+ * @author Lukas Molzberger
+ */
+public class WeightSortedSynapsesTest {
+
+    @Test
+    public void testRelinkAfterRead() throws Exception {
+        TextModel m = new TextModel();
+        m.init();
+        Templates t = m.getTemplates();
+
+        BindingNeuron out = t.SAME_BINDING_TEMPLATE.instantiateTemplate(true);
+
+        List<BindingNeuron> inputs = new ArrayList<>();
+        for(double w: new double[] {3.0, 2.0, 1.0, 0.5}) {
+            BindingNeuron in = t.SAME_BINDING_TEMPLATE.instantiateTemplate(true);
+            Synapse s = t.RELATED_INPUT_SYNAPSE_FROM_B_TEMPLATE.instantiateTemplate(in, out);
+            s.setWeight(w);
+            s.linkOutput();
+            s.linkInput();
+            inputs.add(in);
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        out.write(new DataOutputStream(baos));
+
+        BindingNeuron loaded = (BindingNeuron) Neuron.read(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())), m);
+        loaded.setProvider(out.getProvider());
+        out.getProvider().setNeuron(loaded);
+
+        // the bias of the neuron is not positive, so none of the stronger inputs may remain linked
+        loaded.updateSynapseInputLinks();
+        assertInputLinks(loaded);
+        for(BindingNeuron in: inputs)
+            assertNull(in.getOutputSynapse(out.getProvider()));
+
+        // a synapse with a non-positive weight has to be repositioned in the index and is no longer unlinked
+        Synapse s = loaded.getInputSynapse(inputs.get(2).getProvider());
+        s.setWeight(-1.0);
+        s.linkInput();
+
+        loaded.updateSynapseInputLinks();
+        assertSame(s, inputs.get(2).getOutputSynapse(out.getProvider()));
+    }
+
+    private static void assertInputLinks(BindingNeuron n) {
+        List<Synapse> synapses = new ArrayList<>();
+        n.forEachInputSynapse(s -> synapses.add(s));
+        synapses.sort(Comparator.<Synapse>comparingDouble(s -> s.getWeight()).reversed());
+
+        double sum = n.getBias();
+        for(Synapse s: synapses) {
+            if(s.getWeight() <= 0.0) break;
+            assertEquals(sum > 0.0, s.isInputLinked());
+            sum -= s.getWeight();
+        }
+    }
+}